@@ -0,0 +1,83 @@
+package benchpackage;
+
+import forestgame.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared fixtures for the benchmarks: level paths and generated maps.
+ *
+ * Level files are resolved against the directory given by the
+ * forestgame.levels system property (default "levels").
+ */
+final class BenchLevels {
+
+    private BenchLevels() {
+    }
+
+    static String path(String level) {
+        return System.getProperty("forestgame.levels", "levels") + "/level" + level + ".txt";
+    }
+
+    static LoadedLevel load(String level) {
+        try {
+            return LevelLoader.loadFromFile(path(level));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Open ground map surrounded by trees with the campfire in the top-left
+     * corner, the player next to it and a mushroom in the bottom-right corner.
+     */
+    static TileType[][] openField(int rows, int cols) {
+        TileType[][] tiles = new TileType[rows][cols];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                boolean border = r == 0 || c == 0 || r == rows - 1 || c == cols - 1;
+                tiles[r][c] = border ? TileType.TREE : TileType.GROUND;
+            }
+        }
+        tiles[1][1] = TileType.CAMPFIRE;
+        tiles[rows - 2][cols - 2] = TileType.MUSHROOM;
+        return tiles;
+    }
+
+    /**
+     * Square open field just large enough that the wolves cover about a
+     * quarter of its open tiles (at least 20 x 20).
+     */
+    static LoadedLevel swarm(int wolfCount) {
+        int side = Math.max(20, 2 + (int) Math.ceil(Math.sqrt(4.0 * wolfCount)));
+        return swarm(side, side, wolfCount);
+    }
+
+    /**
+     * Open field with the given number of wolves, one per tile, filling the
+     * map row by row and leaving out the player at (1, 2) and its neighbours.
+     *
+     * @throws IllegalArgumentException if the map has fewer free tiles than wolves
+     */
+    static LoadedLevel swarm(int rows, int cols, int wolfCount) {
+        GameMap map = new GameMap(openField(rows, cols), 1, 1);
+        Player player = new Player(1, 2);
+        List<Wolf> wolves = new ArrayList<>(wolfCount);
+
+        for (int r = 1; r < rows - 1 && wolves.size() < wolfCount; r++) {
+            for (int c = 1; c < cols - 1 && wolves.size() < wolfCount; c++) {
+                if (map.isWalkableForWolf(r, c) && Math.abs(r - 1) + Math.abs(c - 2) > 1) {
+                    wolves.add(new Wolf(r, c));
+                }
+            }
+        }
+        if (wolves.size() < wolfCount) {
+            throw new IllegalArgumentException(wolfCount + " wolves do not fit on a "
+                    + rows + "x" + cols + " map (" + wolves.size() + " free tiles)");
+        }
+        return new LoadedLevel(map, player, wolves, "Swarm");
+    }
+}
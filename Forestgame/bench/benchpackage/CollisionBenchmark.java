@@ -0,0 +1,37 @@
+package benchpackage;
+
+import forestgame.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wolf-vs-player collision check with growing wolf counts. No wolf is in
+ * reach of the player, so every call is a miss (the worst case).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int wolves;
+
+    private SimulationEngine engine;
+
+    @Setup
+    public void setup() {
+        GameState state = new GameState(BenchLevels.swarm(wolves));
+        engine = new SimulationEngine(state, new Random(42));
+    }
+
+    @Benchmark
+    public StepResult checkWolfCollision() {
+        return engine.checkWolfCollision();
+    }
+}
@@ -0,0 +1,61 @@
+package benchpackage;
+
+import forestgame.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading generated square maps from disk. Run with -prof gc to see the
+ * bytes allocated per load next to the load time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LargeLevelLoadBenchmark {
+
+    @Param({"200", "1000", "2000"})
+    public int size;
+
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        TileType[][] tiles = BenchLevels.openField(size, size);
+        StringBuilder sb = new StringBuilder(size * (size + 1));
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                char ch = switch (tiles[r][c]) {
+                    case TREE -> '#';
+                    case CAMPFIRE -> 'C';
+                    case MUSHROOM -> 'M';
+                    default -> '.';
+                };
+                if (r == 1 && c == 2) ch = 'P';
+                if (r == size / 2 && c == size / 2) ch = 'W';
+                sb.append(ch);
+            }
+            sb.append('\n');
+        }
+        file = Files.createTempFile("bench-level", ".txt");
+        Files.write(file, sb.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public LoadedLevel loadFromFile() throws IOException {
+        return LevelLoader.loadFromFile(file.toString());
+    }
+}
@@ -0,0 +1,57 @@
+package benchpackage;
+
+import forestgame.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing cost of each shipped level file, as text and converted to the
+ * binary format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelLoadBenchmark {
+
+    @Param({"1", "2", "3", "4", "5", "6", "7", "8", "9", "10"})
+    public String level;
+
+    @Param({"txt", "fel"})
+    public String format;
+
+    private String path;
+    private Path binary;
+
+    @Setup
+    public void setup() throws IOException {
+        path = BenchLevels.path(level);
+        if (format.equals("fel")) {
+            binary = Files.createTempFile("bench-level", LevelLoader.BINARY_EXTENSION);
+            try (OutputStream out = Files.newOutputStream(binary)) {
+                LevelConverter.write(LevelLoader.loadFromFile(path), out);
+            }
+            path = binary.toString();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (binary != null) {
+            Files.deleteIfExists(binary);
+        }
+    }
+
+    @Benchmark
+    public LoadedLevel loadFromFile() throws IOException {
+        return LevelLoader.loadFromFile(path);
+    }
+}
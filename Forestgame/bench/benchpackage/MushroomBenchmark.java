@@ -0,0 +1,35 @@
+package benchpackage;
+
+import forestgame.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Win detection on maps whose only mushroom is in the last row, so a grid
+ * scan has to walk the whole map.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MushroomBenchmark {
+
+    @Param({"20", "200", "1000"})
+    public int size;
+
+    private GameMap map;
+
+    @Setup
+    public void setup() {
+        map = new GameMap(BenchLevels.openField(size, size), 1, 1);
+    }
+
+    @Benchmark
+    public boolean hasAnyMushrooms() {
+        return map.hasAnyMushrooms();
+    }
+}
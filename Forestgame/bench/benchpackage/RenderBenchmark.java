@@ -0,0 +1,64 @@
+package benchpackage;
+
+import forestgame.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GamePanel painted into an offscreen image: a full frame, and the dirty
+ * region of a typical step (the 7x7 fog square around the player).
+ * The tile atlas and the terrain background are built by the first frame
+ * and reused afterwards, as in the game while the viewport does not scroll.
+ * Run with -Djava.awt.headless=true on machines without a display.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+    @Param({"1", "10"})
+    public String level;
+
+    private GamePanel panel;
+    private BufferedImage image;
+
+    @Setup
+    public void setup() {
+        panel = new GamePanel();
+        panel.setGameState(new GameState(BenchLevels.load(level)));
+        panel.setSize(panel.getPreferredSize());
+
+        image = new BufferedImage(panel.getWidth(), panel.getHeight(),
+                BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Benchmark
+    public BufferedImage paintFrame() {
+        Graphics2D g = image.createGraphics();
+        try {
+            panel.paint(g);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage paintDirtyRegion() {
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setClip(2 * 32, 24 + 2 * 32, 7 * 32, 7 * 32);
+            panel.paint(g);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+}
@@ -0,0 +1,70 @@
+package benchpackage;
+
+import forestgame.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Asserts that wolf movement allocates nothing in steady state.
+ *
+ * Runs the pack update and the standalone Wolf.update loop after a warm-up
+ * and reads the thread's allocation counter around the measured ticks.
+ * Exits with status 1 if any heap allocation is seen, so it can gate a
+ * build next to the JMH run:
+ *
+ * java -cp ... benchpackage.WolfAllocationCheck
+ */
+public class WolfAllocationCheck {
+
+    private static final int WARMUP_TICKS = 20_000;
+    private static final int MEASURED_TICKS = 10_000;
+
+    public static void main(String[] args) {
+        LoadedLevel level = BenchLevels.swarm(10_000);
+        GameState state = new GameState(level);
+        WolfPack pack = state.getWolfPack();
+        GameMap map = state.getMap();
+        WolfGrid grid = state.getWolfGrid();
+        Random random = new Random(42);
+
+        // the pack copied the level's wolves, so these move on their own
+        List<Wolf> standalone = level.getWolves();
+
+        boolean ok = check("WolfPack.update", pack.size(), () -> pack.update(map, random, grid));
+        ok &= check("Wolf.update", standalone.size(), () -> {
+            for (int i = 0, n = standalone.size(); i < n; i++) {
+                standalone.get(i).update(map, random);
+            }
+        });
+
+        if (!ok) {
+            System.err.println("FAIL: wolf update allocates on the heap");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return true if the measured ticks allocated nothing
+     */
+    private static boolean check(String name, int wolves, Runnable tick) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            tick.run();
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_TICKS; i++) {
+            tick.run();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        System.out.println(name + ": " + allocated + " bytes allocated over "
+                + MEASURED_TICKS + " ticks of " + wolves + " wolves");
+        return allocated == 0;
+    }
+}
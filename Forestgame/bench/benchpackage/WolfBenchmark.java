@@ -0,0 +1,72 @@
+package benchpackage;
+
+import forestgame.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One wolf-movement tick (every wolf updated once) on a shipped level and
+ * on generated swarm maps: as standalone Wolf objects (the per-object
+ * baseline, without the occupancy grid) and through the WolfPack arrays.
+ *
+ * "level1" is the shipped level with its own wolves; the numbers are swarm
+ * maps with that many wolves, sized so they cover a quarter of the open
+ * tiles (see BenchLevels.swarm(int)).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WolfBenchmark {
+
+    @Param({"level1", "100", "10000", "100000"})
+    public String wolves;
+
+    private GameMap map;
+    private List<Wolf> standalone;
+    private WolfPack pack;
+    private WolfGrid grid;
+    private DistanceField field;
+    private Random random;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        LoadedLevel level = wolves.equals("level1")
+                ? BenchLevels.load("1")
+                : BenchLevels.swarm(Integer.parseInt(wolves));
+        GameState state = new GameState(level);
+        map = state.getMap();
+        standalone = level.getWolves();     // the pack copied them, so they move on their own
+        pack = state.getWolfPack();
+        grid = state.getWolfGrid();
+        field = new DistanceField(map);
+        field.update(state.getPlayer().getRow(), state.getPlayer().getCol());
+        random = new Random(42);
+    }
+
+    @Benchmark
+    public List<Wolf> updateAll() {
+        for (int i = 0, n = standalone.size(); i < n; i++) {
+            standalone.get(i).update(map, random);
+        }
+        return standalone;
+    }
+
+    @Benchmark
+    public WolfPack packUpdate() {
+        pack.update(map, random, grid);
+        return pack;
+    }
+
+    @Benchmark
+    public WolfPack packPursue() {
+        pack.pursue(map, field, random, grid);
+        return pack;
+    }
+}
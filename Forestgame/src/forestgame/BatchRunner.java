@@ -0,0 +1,172 @@
+package forestgame;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs many independent headless sessions in parallel on a ForkJoinPool.
+ *
+ * Every session gets its own copy of the (cached) level and its own seeded,
+ * unsynchronized generator (GameState's), so sessions share no mutable state,
+ * scale with the number of cores, and can be replayed from their seed.
+ *
+ * Usage: java forestgame.BatchRunner [levelsDir] [sessionsPerLevel] [maxTicks] [wander|pursue]
+ */
+public class BatchRunner {
+
+    private static final char[] MOVES = {'W', 'A', 'S', 'D'};
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param parallelism number of worker threads
+     */
+    public BatchRunner(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Runs all sessions and returns their outcomes in the order of the specs.
+     *
+     * @param specs
+     * @return
+     */
+    public List<SessionOutcome> runAll(List<SessionSpec> specs) {
+        try {
+            return pool.submit(() -> specs.parallelStream()
+                    .map(BatchRunner::runSession)
+                    .collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch run interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch run failed", e.getCause());
+        }
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Plays one session to completion on the calling thread.
+     *
+     * @param spec
+     * @return
+     */
+    public static SessionOutcome runSession(SessionSpec spec) {
+        LoadedLevel level;
+        try {
+            level = LevelCache.load(spec.getLevelPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load " + spec.getLevelPath(), e);
+        }
+
+        GameState state = new GameState(level, spec.getSeed());
+        SimulationEngine engine = new SimulationEngine(state);
+        engine.setWolfBehavior(spec.getWolfBehavior());
+        engine.reset();
+
+        String inputs = spec.getInputs();
+        StepResult last = StepResult.NONE;
+        int livesLost = 0;
+
+        for (int tick = 0; tick < spec.getMaxTicks() && !last.isFinal(); tick++) {
+            if (tick < inputs.length()) {
+                last = engine.applyInput(inputs.charAt(tick));
+                if (last == StepResult.CAUGHT || last == StepResult.GAME_OVER)
+                    livesLost++;
+                if (last.isFinal())
+                    break;
+            }
+
+            last = engine.tick();
+            if (last == StepResult.CAUGHT || last == StepResult.GAME_OVER)
+                livesLost++;
+        }
+
+        return new SessionOutcome(
+                state.getLevelName(),
+                spec.getSeed(),
+                last.isFinal() ? last : StepResult.NONE,
+                state.getPlayer().getMushroomsCollected(),
+                state.getElapsedSeconds(),
+                livesLost);
+    }
+
+    /**
+     * Builds a random-walk input script from a seed.
+     *
+     * @param seed
+     * @param length
+     * @return
+     */
+    public static String randomInputs(long seed, int length) {
+        SplittableRandom rand = new SplittableRandom(seed);
+        char[] script = new char[length];
+        for (int i = 0; i < length; i++) {
+            script[i] = MOVES[rand.nextInt(MOVES.length)];
+        }
+        return new String(script);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String levelsDir = args.length > 0 ? args[0] : "levels";
+        int sessionsPerLevel = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int maxTicks = args.length > 2 ? Integer.parseInt(args[2]) : 600;
+        WolfBehavior behavior = args.length > 3
+                ? WolfBehavior.valueOf(args[3].toUpperCase())
+                : WolfBehavior.WANDER;
+
+        List<String> levelPaths;
+        try (Stream<Path> files = Files.list(Paths.get(levelsDir))) {
+            levelPaths = files
+                    .filter(f -> f.getFileName().toString().endsWith(".txt"))
+                    .map(Path::toString)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        List<SessionSpec> specs = new ArrayList<>();
+        long seed = 0;
+        for (String path : levelPaths) {
+            for (int i = 0; i < sessionsPerLevel; i++, seed++) {
+                specs.add(new SessionSpec(path, seed, randomInputs(seed, maxTicks), maxTicks, behavior));
+            }
+        }
+
+        BatchRunner runner = new BatchRunner(Runtime.getRuntime().availableProcessors());
+        long start = System.nanoTime();
+        List<SessionOutcome> outcomes = runner.runAll(specs);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        runner.shutdown();
+
+        Map<String, List<SessionOutcome>> byLevel = new TreeMap<>(outcomes.stream()
+                .collect(Collectors.groupingBy(SessionOutcome::getLevelName)));
+
+        for (Map.Entry<String, List<SessionOutcome>> e : byLevel.entrySet()) {
+            List<SessionOutcome> list = e.getValue();
+            long cleared = list.stream().filter(o -> o.getResult() == StepResult.LEVEL_CLEARED).count();
+            long lost = list.stream().filter(o -> o.getResult() == StepResult.GAME_OVER).count();
+            double mushrooms = list.stream().mapToInt(SessionOutcome::getMushrooms).average().orElse(0);
+            double seconds = list.stream().mapToInt(SessionOutcome::getElapsedSeconds).average().orElse(0);
+            int livesLost = list.stream().mapToInt(SessionOutcome::getLivesLost).sum();
+
+            System.out.printf("%-10s sessions=%d cleared=%d gameOver=%d avgMushrooms=%.2f avgSeconds=%.1f livesLost=%d%n",
+                    e.getKey(), list.size(), cleared, lost, mushrooms, seconds, livesLost);
+        }
+        System.out.printf("%d sessions in %d ms%n", outcomes.size(), elapsedMs);
+    }
+}
@@ -0,0 +1,118 @@
+package forestgame;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first distance field from one source tile (the player) over the
+ * wolf-walkable tiles of a map. One field is shared by every wolf, so the
+ * cost of pursuit does not grow with the number of wolves.
+ *
+ * The field is only rebuilt when the source tile or the map's walkability
+ * changes; the buffers are allocated once and reused. When the level has an
+ * exact DistanceTable (maps up to DistanceTable.MAX_EXACT_CELLS open
+ * tiles), the field just points at the source's row in it and no search
+ * runs at all, so a player step costs O(1).
+ *
+ * Larger maps get a full O(map) breadth-first rebuild every time a wolf
+ * tick finds the player on a new tile. The rebuild is not incremental:
+ * after a one-tile move almost every tile's distance changes by one (the
+ * tiles ahead of the player get closer, the ones behind farther), so
+ * repairing the old field would touch as many tiles as rebuilding it.
+ */
+public class DistanceField {
+
+    /** Distance of tiles that cannot reach the source. */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final GameMap map;
+    private final int cols;
+    private final DistanceTable table;
+    private int[] dist;
+    private int[] queue;
+
+    private int sourceIndex = -1;
+    private int walkabilityVersion = -1;
+    private int tableSlot = -1;     // source slot in the table, -1 when searching
+
+    public DistanceField(GameMap map) {
+        this(map, null);
+    }
+
+    /**
+     * @param map
+     * @param table precomputed distances of the level, or null
+     */
+    public DistanceField(GameMap map, DistanceTable table) {
+        this.map = map;
+        this.cols = map.getCols();
+        this.table = table;
+    }
+
+    /**
+     * Makes the field describe distances to the given tile, recomputing it
+     * only if the source or the map's walkability changed. O(1) with an
+     * exact table, otherwise a full search over the map.
+     *
+     * @param row
+     * @param col
+     */
+    public void update(int row, int col) {
+        int source = row * cols + col;
+        if (source == sourceIndex && walkabilityVersion == map.getWalkabilityVersion()) {
+            return;
+        }
+        sourceIndex = source;
+        walkabilityVersion = map.getWalkabilityVersion();
+
+        if (table != null && table.isExact() && table.isValidFor(map)) {
+            tableSlot = table.slotOf(row, col);
+            if (tableSlot >= 0)
+                return;
+        }
+        tableSlot = -1;
+
+        if (dist == null) {
+            dist = new int[map.getRows() * cols];
+            queue = new int[map.getRows() * cols];
+        }
+
+        Arrays.fill(dist, UNREACHABLE);
+        dist[source] = 0;
+        queue[0] = source;
+        int head = 0;
+        int tail = 1;
+
+        // the source may be a campfire; the search expands through wolf-walkable tiles only
+        while (head < tail) {
+            int cell = queue[head++];
+            int r = cell / cols;
+            int c = cell - r * cols;
+            int next = dist[cell] + 1;
+            int exits = map.getWolfExits(r, c);
+
+            while (exits != 0) {
+                Direction d = DIRECTIONS[Integer.numberOfTrailingZeros(exits)];
+                exits &= exits - 1;
+
+                int n = cell + d.dRow * cols + d.dCol;
+                if (dist[n] == UNREACHABLE) {
+                    dist[n] = next;
+                    queue[tail++] = n;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param row
+     * @param col
+     * @return steps from the tile to the source, or UNREACHABLE
+     */
+    public int distance(int row, int col) {
+        if (tableSlot >= 0)
+            return table.distanceToSlot(tableSlot, row, col);
+        return dist[row * cols + col];
+    }
+}
@@ -0,0 +1,238 @@
+package forestgame;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed shortest-path distances for a level, answered in O(1).
+ *
+ * Distances are wolf step counts: paths run over wolf-walkable tiles, and
+ * the destination may be any tile the player can stand on (including the
+ * campfire). Walls never change during a level, so the table is built once
+ * per parsed level and shared by every session of it.
+ *
+ * Small maps (up to MAX_EXACT_CELLS player-walkable tiles) get an exact
+ * all-pairs table. Larger maps get landmark (ALT) tables instead, which
+ * only provide a lower bound usable as an A* heuristic.
+ */
+public class DistanceTable {
+
+    /** Largest number of player-walkable tiles that gets an all-pairs table. */
+    public static final int MAX_EXACT_CELLS = 1024;
+
+    /** Largest map (in tiles) that gets landmark tables. */
+    public static final int MAX_LANDMARK_TILES = 1_000_000;
+
+    private static final int LANDMARKS = 8;
+    private static final char NONE = Character.MAX_VALUE;     // unreachable
+    private static final char CAP = Character.MAX_VALUE - 1;   // longer paths are clamped
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final GameMap map;
+    private final int cols;
+    private final int walkabilityVersion;
+
+    // exact mode: slot of every player-walkable tile, table[dest * slots + from]
+    private final int[] slotOf;
+    private final int slots;
+    private final char[] exact;
+
+    // landmark mode: landmarks[k][tile] = distance from tile to landmark k
+    private final char[][] landmarks;
+
+    private DistanceTable(GameMap map, int[] slotOf, int slots, char[] exact, char[][] landmarks) {
+        this.map = map;
+        this.cols = map.getCols();
+        this.walkabilityVersion = map.getWalkabilityVersion();
+        this.slotOf = slotOf;
+        this.slots = slots;
+        this.exact = exact;
+        this.landmarks = landmarks;
+    }
+
+    /**
+     * Builds the table for a map whose walls will not change.
+     *
+     * @param map
+     * @return the table, or null if the map is too large for either mode
+     */
+    public static DistanceTable build(GameMap map) {
+        int tiles = map.getRows() * map.getCols();
+
+        int[] slotOf = new int[tiles];
+        int slots = 0;
+        for (int i = 0; i < tiles; i++) {
+            slotOf[i] = map.isWalkableForPlayer(i / map.getCols(), i % map.getCols()) ? slots++ : -1;
+        }
+
+        if (slots <= MAX_EXACT_CELLS) {
+            char[] exact = new char[slots * slots];
+            Arrays.fill(exact, NONE);
+            int[] queue = new int[tiles];
+            char[] dist = new char[tiles];
+            for (int i = 0; i < tiles; i++) {
+                if (slotOf[i] < 0)
+                    continue;
+                bfs(map, i, dist, queue);
+                int base = slotOf[i] * slots;
+                for (int j = 0; j < tiles; j++) {
+                    if (slotOf[j] >= 0)
+                        exact[base + slotOf[j]] = dist[j];
+                }
+            }
+            return new DistanceTable(map, slotOf, slots, exact, null);
+        }
+
+        if (tiles <= MAX_LANDMARK_TILES) {
+            return new DistanceTable(map, null, 0, null, buildLandmarks(map));
+        }
+        return null;
+    }
+
+    /**
+     * Picks landmarks by farthest-point selection: each new landmark is the
+     * tile farthest from all landmarks chosen so far.
+     */
+    private static char[][] buildLandmarks(GameMap map) {
+        int tiles = map.getRows() * map.getCols();
+        int[] queue = new int[tiles];
+        char[][] result = new char[LANDMARKS][];
+
+        int next = -1;
+        for (int i = 0; i < tiles && next < 0; i++) {
+            if (map.isWalkableForWolf(i / map.getCols(), i % map.getCols()))
+                next = i;
+        }
+        if (next < 0)
+            return new char[0][];
+
+        int[] nearest = new int[tiles];
+        Arrays.fill(nearest, Integer.MAX_VALUE);
+
+        int count = 0;
+        while (count < LANDMARKS && next >= 0) {
+            char[] dist = new char[tiles];
+            bfs(map, next, dist, queue);
+            result[count++] = dist;
+
+            next = -1;
+            int farthest = 0;
+            for (int i = 0; i < tiles; i++) {
+                if (dist[i] != NONE)
+                    nearest[i] = Math.min(nearest[i], dist[i]);
+                if (nearest[i] != Integer.MAX_VALUE && nearest[i] > farthest) {
+                    farthest = nearest[i];
+                    next = i;
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Distances from every tile to the source, walking over wolf-walkable
+     * tiles (the source itself may be any tile).
+     */
+    private static void bfs(GameMap map, int source, char[] dist, int[] queue) {
+        int cols = map.getCols();
+        Arrays.fill(dist, NONE);
+        dist[source] = 0;
+        queue[0] = source;
+        int head = 0;
+        int tail = 1;
+
+        while (head < tail) {
+            int cell = queue[head++];
+            int r = cell / cols;
+            char next = (char) Math.min(dist[cell] + 1, CAP);
+            int exits = map.getWolfExits(r, cell - r * cols);
+
+            while (exits != 0) {
+                Direction d = DIRECTIONS[Integer.numberOfTrailingZeros(exits)];
+                exits &= exits - 1;
+
+                int n = cell + d.dRow * cols + d.dCol;
+                if (dist[n] == NONE) {
+                    dist[n] = next;
+                    queue[tail++] = n;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if {@link #distance} is available (small maps)
+     */
+    public boolean isExact() {
+        return exact != null;
+    }
+
+    /**
+     * Returns true if the table still matches the map's walls.
+     *
+     * @param other map to check (a session copy of the template's map)
+     * @return
+     */
+    public boolean isValidFor(GameMap other) {
+        return other.getRows() == map.getRows()
+                && other.getCols() == cols
+                && other.getWalkabilityVersion() == walkabilityVersion;
+    }
+
+    /**
+     * Exact number of wolf steps from one tile to another.
+     * Only available when {@link #isExact()}.
+     *
+     * @return the distance, or DistanceField.UNREACHABLE
+     */
+    public int distance(int fromRow, int fromCol, int toRow, int toCol) {
+        int from = slotOf[fromRow * cols + fromCol];
+        int to = slotOf[toRow * cols + toCol];
+        if (from < 0 || to < 0)
+            return DistanceField.UNREACHABLE;
+        char d = exact[to * slots + from];
+        return d == NONE ? DistanceField.UNREACHABLE : d;
+    }
+
+    /**
+     * Slot of a destination tile for repeated {@link #distanceToSlot} lookups.
+     *
+     * @return the slot, or -1 if the tile is not in the table
+     */
+    int slotOf(int row, int col) {
+        return slotOf[row * cols + col];
+    }
+
+    /**
+     * Exact distance from a tile to the destination slot.
+     */
+    int distanceToSlot(int destSlot, int fromRow, int fromCol) {
+        int from = slotOf[fromRow * cols + fromCol];
+        if (from < 0)
+            return DistanceField.UNREACHABLE;
+        char d = exact[destSlot * slots + from];
+        return d == NONE ? DistanceField.UNREACHABLE : d;
+    }
+
+    /**
+     * Admissible lower bound on the wolf distance between two tiles; exact
+     * on small maps, an ALT landmark bound on larger ones.
+     *
+     * @return the bound (UNREACHABLE only from an exact table)
+     */
+    public int lowerBound(int fromRow, int fromCol, int toRow, int toCol) {
+        if (exact != null)
+            return distance(fromRow, fromCol, toRow, toCol);
+
+        int a = fromRow * cols + fromCol;
+        int b = toRow * cols + toCol;
+        int bound = 0;
+        for (char[] dist : landmarks) {
+            char da = dist[a];
+            char db = dist[b];
+            if (da == NONE || db == NONE)
+                continue;       // landmark in another component, no information
+            bound = Math.max(bound, Math.abs(da - db));
+        }
+        return bound;
+    }
+}
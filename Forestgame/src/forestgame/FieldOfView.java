@@ -0,0 +1,155 @@
+package forestgame;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Line-of-sight field of view over a map's sight-blocking tiles (trees and
+ * rocks), computed by recursive shadowcasting.
+ *
+ * Shadowcasting visits only the tiles inside the radius, octant by octant,
+ * and skips whatever lies in the shadow of a blocker, so the cost depends
+ * on the visible area, not the map. Results are memoized per (viewer
+ * tile, radius) and shared by every session of the level (see
+ * LevelTemplate.getFieldOfView()); a session whose map gained or lost a
+ * sight blocker gets a field of view of its own (see isValidFor).
+ *
+ * The memo is a ConcurrentHashMap, so parallel sessions of a level read it
+ * without a lock. Once it holds MAX_CACHED masks it stops growing and
+ * further viewer positions are computed on each call.
+ */
+public class FieldOfView {
+
+    /** Most viewer positions kept per field of view. */
+    public static final int MAX_CACHED = 1 << 16;
+
+    // octant transforms: (dx, dy) in octant space to (col, row) offsets
+    private static final int[][] OCTANTS = {
+            {1, 0, 0, 1}, {0, 1, 1, 0}, {0, -1, 1, 0}, {-1, 0, 0, 1},
+            {-1, 0, 0, -1}, {0, -1, -1, 0}, {0, 1, -1, 0}, {1, 0, 0, -1}
+    };
+
+    private final GameMap map;
+    private final int rows;
+    private final int cols;
+    private final int sightVersion;
+
+    // key: radius in the high half, tile index in the low half
+    private final ConcurrentHashMap<Long, long[]> cache = new ConcurrentHashMap<>(256);
+
+    /**
+     * @param map map whose trees and rocks must not change afterwards
+     */
+    public FieldOfView(GameMap map) {
+        this.map = map;
+        this.rows = map.getRows();
+        this.cols = map.getCols();
+        this.sightVersion = map.getSightVersion();
+    }
+
+    /**
+     * Returns true if the results still match the map's blockers.
+     *
+     * @param other map to check (a session copy of the template's map)
+     * @return
+     */
+    public boolean isValidFor(GameMap other) {
+        return other.getRows() == rows
+                && other.getCols() == cols
+                && other.getSightVersion() == sightVersion;
+    }
+
+    /**
+     * Tiles visible from (row, col) within the radius, as a bitmask over
+     * the (2 * radius + 1)^2 square around the viewer in row-major order.
+     * The returned array is shared and must not be modified.
+     *
+     * @param row
+     * @param col
+     * @param radius Chebyshev radius
+     * @return the mask; see {@link #isSet}
+     */
+    public long[] compute(int row, int col, int radius) {
+        long key = ((long) radius << 32) | (row * cols + col);
+        long[] cached = cache.get(key);
+        if (cached != null)
+            return cached;
+
+        int side = 2 * radius + 1;
+        long[] mask = new long[(side * side + 63) / 64];
+        mark(mask, radius, 0, 0);
+        for (int[] o : OCTANTS) {
+            castLight(mask, row, col, radius, 1, 1.0, 0.0, o[0], o[1], o[2], o[3]);
+        }
+
+        if (cache.size() >= MAX_CACHED)
+            return mask;
+
+        // two threads may compute the same mask; both return the one kept
+        cached = cache.putIfAbsent(key, mask);
+        return cached != null ? cached : mask;
+    }
+
+    /**
+     * @return whether the tile at offset (dRow, dCol) from the viewer is set
+     */
+    public static boolean isSet(long[] mask, int radius, int dRow, int dCol) {
+        int bit = (dRow + radius) * (2 * radius + 1) + (dCol + radius);
+        return (mask[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    private static void mark(long[] mask, int radius, int dRow, int dCol) {
+        int bit = (dRow + radius) * (2 * radius + 1) + (dCol + radius);
+        mask[bit >>> 6] |= 1L << bit;
+    }
+
+    /**
+     * Scans one octant row by row from the given depth, between the start
+     * and end slopes, recursing whenever a blocker splits the light.
+     */
+    private void castLight(long[] mask, int row, int col, int radius, int depth,
+                           double start, double end, int xx, int xy, int yx, int yy) {
+        if (start < end)
+            return;
+
+        double newStart = 0;
+        for (int j = depth; j <= radius; j++) {
+            boolean blocked = false;
+
+            for (int dx = -j; dx <= 0; dx++) {
+                int dy = -j;
+                double leftSlope = (dx - 0.5) / (dy + 0.5);
+                double rightSlope = (dx + 0.5) / (dy - 0.5);
+                if (start < rightSlope)
+                    continue;
+                if (end > leftSlope)
+                    break;
+
+                int dCol = dx * xx + dy * xy;
+                int dRow = dx * yx + dy * yy;
+                int r = row + dRow;
+                int c = col + dCol;
+
+                // the map edge blocks sight like a wall
+                boolean opaque = r < 0 || r >= rows || c < 0 || c >= cols
+                        || map.getTile(r, c).isBlockingSight();
+                if (!(r < 0 || r >= rows || c < 0 || c >= cols))
+                    mark(mask, radius, dRow, dCol);
+
+                if (blocked) {
+                    if (opaque) {
+                        newStart = rightSlope;
+                    } else {
+                        blocked = false;
+                        start = newStart;
+                    }
+                } else if (opaque && j < radius) {
+                    blocked = true;
+                    castLight(mask, row, col, radius, j + 1, start, leftSlope, xx, xy, yx, yy);
+                    newStart = rightSlope;
+                }
+            }
+            if (blocked)
+                break;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package forestgame;
+
+/**
+ * Frame-time metrics of GamePanel's render loop over a sliding window of
+ * recent frames: the interval between painted frames while something is
+ * animating, and the time spent painting.
+ */
+public class FrameStats {
+
+    public static final int WINDOW = 120;      // about two seconds at 60 FPS
+
+    private final long[] frameNanos = new long[WINDOW];
+    private final long[] paintNanos = new long[WINDOW];
+    private int frames;                       // samples in the window
+    private int nextFrame;
+    private int paints;
+    private int nextPaint;
+    private long lastFrameAt;
+    private boolean inRun;                    // lastFrameAt belongs to the current run
+    private long totalFrames;
+
+    /**
+     * Records the start of a painted render frame.
+     *
+     * @param now System.nanoTime()
+     */
+    public synchronized void frameStarted(long now) {
+        if (inRun) {
+            frameNanos[nextFrame] = now - lastFrameAt;
+            nextFrame = (nextFrame + 1) % WINDOW;
+            frames = Math.min(frames + 1, WINDOW);
+        }
+        lastFrameAt = now;
+        inRun = true;
+        totalFrames++;
+    }
+
+    /**
+     * Ends a run of frames (the render loop went idle), so the time until
+     * the next frame is not counted as a frame interval.
+     */
+    public synchronized void pause() {
+        inRun = false;
+    }
+
+    /**
+     * Records how long one paintComponent call took.
+     *
+     * @param nanos
+     */
+    public synchronized void painted(long nanos) {
+        paintNanos[nextPaint] = nanos;
+        nextPaint = (nextPaint + 1) % WINDOW;
+        paints = Math.min(paints + 1, WINDOW);
+    }
+
+    public synchronized long getTotalFrames() {
+        return totalFrames;
+    }
+
+    /**
+     * @return average frames per second over the window, or 0 before two frames
+     */
+    public synchronized double getAverageFps() {
+        double millis = getAverageFrameMillis();
+        return millis > 0 ? 1000.0 / millis : 0;
+    }
+
+    /**
+     * @return average time between frames in the window, in milliseconds
+     */
+    public synchronized double getAverageFrameMillis() {
+        return average(frameNanos, frames);
+    }
+
+    /**
+     * @return longest time between two frames in the window, in milliseconds
+     */
+    public synchronized double getWorstFrameMillis() {
+        long worst = 0;
+        for (int i = 0; i < frames; i++) {
+            worst = Math.max(worst, frameNanos[i]);
+        }
+        return worst / 1e6;
+    }
+
+    /**
+     * @return average paintComponent time in the window, in milliseconds
+     */
+    public synchronized double getAveragePaintMillis() {
+        return average(paintNanos, paints);
+    }
+
+    private static double average(long[] samples, int count) {
+        if (count == 0)
+            return 0;
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += samples[i];
+        }
+        return sum / 1e6 / count;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%.1f FPS (frame %.2f ms avg, %.2f ms worst, paint %.2f ms avg)",
+                getAverageFps(), getAverageFrameMillis(), getWorstFrameMillis(), getAveragePaintMillis());
+    }
+}
@@ -1,105 +1,299 @@
-package forestgame;
-
-/**
- * Represents the game map (grid of tiles) with collision and helper methods.
- */
-public class GameMap {
-
-    private final TileType[][] tiles;
-    private final int rows;
-    private final int cols;
-
-    private int campfireRow;
-    private int campfireCol;
-
-    /**
-     * Creates a GameMap with the given tile array and campfire position.
-     *
-     * @param tiles       
-     * @param campfireRow 
-     * @param campfireCol 
-     */
-    public GameMap(TileType[][] tiles, int campfireRow, int campfireCol) {
-        this.tiles = tiles;
-        this.rows = tiles.length;
-        this.cols = tiles[0].length;
-        this.campfireRow = campfireRow;
-        this.campfireCol = campfireCol;
-    }
-
-    public int getRows() {
-        return rows;
-    }
-
-    public int getCols() {
-        return cols;
-    }
-
-    public TileType getTile(int row, int col) {
-        return tiles[row][col];
-    }
-
-    public void setTile(int row, int col, TileType tileType) {
-        tiles[row][col] = tileType;
-    }
-
-    public int getCampfireRow() {
-        return campfireRow;
-    }
-
-    public int getCampfireCol() {
-        return campfireCol;
-    }
-
-    /**
-     * Checks if a position is inside the map.
-     * @param row 
-     * @param col 
-     * @return 
-     */
-    public boolean isInside(int row, int col) {
-        return row >= 0 && row < rows && col >= 0 && col < cols;
-    }
-
-    /**
-     * Returns true if the target tile is walkable by the player.
-     *
-     * @param row 
-     * @param col 
-     * @return 
-     */
-    public boolean isWalkableForPlayer(int row, int col) {
-        if (!isInside(row, col)) {
-            return false;
-        }
-        return !getTile(row, col).isBlockingForPlayer();
-    }
-
-    /**
-     * Returns true if the target tile is walkable by the wolf.
-     *
-     * @param row 
-     * @param col 
-     * @return 
-     */
-    public boolean isWalkableForWolf(int row, int col) {
-        if (!isInside(row, col)) {
-            return false;
-        }
-        return !getTile(row, col).isBlockingForWolf();
-    }
-
-    /**
-     * @return 
-     */
-    public boolean hasAnyMushrooms() {
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                if (tiles[r][c] == TileType.MUSHROOM) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-}
+package forestgame;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Represents the game map (grid of tiles) with collision and helper methods.
+ *
+ * Tiles are stored row-major in a flat byte array holding TileType ordinals,
+ * with one walkability bitset per actor type, a count of every tile type and
+ * a per-tile mask of the directions a wolf can leave in, all kept in sync
+ * by setTile.
+ */
+public class GameMap {
+
+    private static final TileType[] TILE_TYPES = TileType.values();
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final byte[] tiles;
+    private final int rows;
+    private final int cols;
+
+    private final BitSet walkableForPlayer;
+    private final BitSet walkableForWolf;
+    private final int[] tileCounts;
+    private final byte[] wolfExits;     // bit d set: neighbour in Direction d is wolf-walkable
+    private int walkabilityVersion;     // bumped whenever a tile's walkability changes
+    private int sightVersion;           // bumped whenever a tile starts or stops blocking sight
+    private int terrainVersion;         // bumped whenever a tile's terrain (see terrainOf) changes
+
+    private int campfireRow;
+    private int campfireCol;
+
+    /**
+     * Creates a GameMap with the given tile array and campfire position.
+     *
+     * @param tiles       
+     * @param campfireRow 
+     * @param campfireCol 
+     */
+    public GameMap(TileType[][] tiles, int campfireRow, int campfireCol) {
+        this(tiles.length, tiles[0].length, flatten(tiles), campfireRow, campfireCol);
+    }
+
+    /**
+     * Creates a GameMap over a row-major array of TileType ordinals.
+     * The array is used as is, not copied, and may be longer than
+     * rows * cols (loaders size it before the dimensions are known).
+     *
+     * @param rows
+     * @param cols
+     * @param tiles       
+     * @param campfireRow 
+     * @param campfireCol 
+     */
+    GameMap(int rows, int cols, byte[] tiles, int campfireRow, int campfireCol) {
+        this.tiles = tiles;
+        this.rows = rows;
+        this.cols = cols;
+        this.campfireRow = campfireRow;
+        this.campfireCol = campfireCol;
+
+        this.walkableForPlayer = new BitSet(rows * cols);
+        this.walkableForWolf = new BitSet(rows * cols);
+        this.tileCounts = new int[TILE_TYPES.length];
+        for (int i = 0; i < rows * cols; i++) {
+            updateWalkability(i, TILE_TYPES[tiles[i]]);
+            tileCounts[tiles[i]]++;
+        }
+
+        this.wolfExits = new byte[rows * cols];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                updateWolfExits(r, c);
+            }
+        }
+    }
+
+    /**
+     * Creates an independent copy of another map. Arrays and bitsets are
+     * copied wholesale, so this is much cheaper than building a map from
+     * scratch.
+     *
+     * @param other
+     */
+    GameMap(GameMap other) {
+        this.rows = other.rows;
+        this.cols = other.cols;
+        this.tiles = Arrays.copyOf(other.tiles, other.rows * other.cols);
+        this.walkableForPlayer = (BitSet) other.walkableForPlayer.clone();
+        this.walkableForWolf = (BitSet) other.walkableForWolf.clone();
+        this.tileCounts = other.tileCounts.clone();
+        this.wolfExits = other.wolfExits.clone();
+        this.walkabilityVersion = other.walkabilityVersion;
+        this.sightVersion = other.sightVersion;
+        this.terrainVersion = other.terrainVersion;
+        this.campfireRow = other.campfireRow;
+        this.campfireCol = other.campfireCol;
+    }
+
+    private static byte[] flatten(TileType[][] tiles) {
+        int rows = tiles.length;
+        int cols = tiles[0].length;
+        byte[] flat = new byte[rows * cols];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                flat[r * cols + c] = (byte) tiles[r][c].ordinal();
+            }
+        }
+        return flat;
+    }
+
+    private void updateWalkability(int index, TileType tileType) {
+        walkableForPlayer.set(index, !tileType.isBlockingForPlayer());
+        walkableForWolf.set(index, !tileType.isBlockingForWolf());
+    }
+
+    private void updateWolfExits(int row, int col) {
+        int mask = 0;
+        for (Direction d : DIRECTIONS) {
+            if (isWalkableForWolf(row + d.dRow, col + d.dCol)) {
+                mask |= 1 << d.ordinal();
+            }
+        }
+        wolfExits[row * cols + col] = (byte) mask;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public TileType getTile(int row, int col) {
+        checkInside(row, col);
+        return TILE_TYPES[tiles[row * cols + col]];
+    }
+
+    public void setTile(int row, int col, TileType tileType) {
+        checkInside(row, col);
+        int index = row * cols + col;
+        if (TILE_TYPES[tiles[index]].isBlockingSight() != tileType.isBlockingSight()) {
+            sightVersion++;
+        }
+        if (terrainOf(TILE_TYPES[tiles[index]]) != terrainOf(tileType)) {
+            terrainVersion++;
+        }
+        tileCounts[tiles[index]]--;
+        tileCounts[tileType.ordinal()]++;
+        tiles[index] = (byte) tileType.ordinal();
+        if (walkableForPlayer.get(index) == tileType.isBlockingForPlayer()
+                || walkableForWolf.get(index) == tileType.isBlockingForWolf()) {
+            walkabilityVersion++;
+        }
+        updateWalkability(index, tileType);
+
+        // the exits of the four neighbours may have changed
+        for (Direction d : DIRECTIONS) {
+            int r = row + d.dRow;
+            int c = col + d.dCol;
+            if (isInside(r, c)) {
+                updateWolfExits(r, c);
+            }
+        }
+    }
+
+    public int getCampfireRow() {
+        return campfireRow;
+    }
+
+    public int getCampfireCol() {
+        return campfireCol;
+    }
+
+    /**
+     * Checks each axis separately: with flat storage an out-of-range column
+     * would otherwise land on a tile of the neighbouring row.
+     */
+    private void checkInside(int row, int col) {
+        if (!isInside(row, col)) {
+            throw new IndexOutOfBoundsException(
+                    "Tile (" + row + ", " + col + ") is outside the " + rows + "x" + cols + " map");
+        }
+    }
+
+    /**
+     * Checks if a position is inside the map.
+     * @param row 
+     * @param col 
+     * @return 
+     */
+    public boolean isInside(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    /**
+     * Returns true if the target tile is walkable by the player.
+     *
+     * @param row 
+     * @param col 
+     * @return 
+     */
+    public boolean isWalkableForPlayer(int row, int col) {
+        return isInside(row, col) && walkableForPlayer.get(row * cols + col);
+    }
+
+    /**
+     * Returns true if the target tile is walkable by the wolf.
+     *
+     * @param row 
+     * @param col 
+     * @return 
+     */
+    public boolean isWalkableForWolf(int row, int col) {
+        return isInside(row, col) && walkableForWolf.get(row * cols + col);
+    }
+
+    /**
+     * Returns the directions in which a wolf standing on the tile can move,
+     * as a bitmask with bit {@code d.ordinal()} set for each open Direction d.
+     *
+     * @param row
+     * @param col
+     * @return 
+     */
+    public int getWolfExits(int row, int col) {
+        return wolfExits[row * cols + col];
+    }
+
+    /**
+     * Returns a counter that changes whenever setTile changes whether a tile
+     * is walkable, so cached path data can tell when it is stale.
+     *
+     * @return 
+     */
+    public int getWalkabilityVersion() {
+        return walkabilityVersion;
+    }
+
+    /**
+     * Returns a counter that changes whenever setTile adds or removes a
+     * sight blocker (tree or rock). A bush turning into a tree keeps the
+     * walkability but not the line of sight.
+     *
+     * @return 
+     */
+    public int getSightVersion() {
+        return sightVersion;
+    }
+
+    /**
+     * Returns a counter that changes whenever setTile changes a tile's
+     * terrain, e.g. a bush becoming a tree or the campfire moving. Picking
+     * up a mushroom or power-up leaves the ground under it, so it does not
+     * count; views that draw items separately can cache the terrain on it.
+     *
+     * @return 
+     */
+    public int getTerrainVersion() {
+        return terrainVersion;
+    }
+
+    /**
+     * @param tileType
+     * @return the terrain under the tile: GROUND for items, else the tile itself
+     */
+    public static TileType terrainOf(TileType tileType) {
+        return tileType.isMushroom() || tileType.isPowerUp() ? TileType.GROUND : tileType;
+    }
+
+    /**
+     * Returns how many tiles of the given type are currently on the map.
+     *
+     * @param tileType
+     * @return 
+     */
+    public int getTileCount(TileType tileType) {
+        return tileCounts[tileType.ordinal()];
+    }
+
+    public int getMushroomsRemaining() {
+        return tileCounts[TileType.MUSHROOM.ordinal()];
+    }
+
+    public int getPowerUpsRemaining() {
+        return tileCounts[TileType.SPEED_POWERUP.ordinal()]
+                + tileCounts[TileType.INVIS_POWERUP.ordinal()]
+                + tileCounts[TileType.EXTRA_LIFE.ordinal()];
+    }
+
+    /**
+     * @return 
+     */
+    public boolean hasAnyMushrooms() {
+        return getMushroomsRemaining() > 0;
+    }
+}
@@ -1,502 +1,885 @@
-package forestgame;
-
-import javax.swing.JPanel;
-import javax.swing.Timer;
-import javax.swing.JOptionPane;
-import javax.swing.KeyStroke;
-import javax.swing.ActionMap;
-import javax.swing.InputMap;
-import javax.swing.SwingUtilities;
-
-import java.awt.Color;
-import java.awt.Dimension;
-import java.awt.Graphics;
-import java.awt.Graphics2D;
-import java.awt.RenderingHints;
-import java.awt.Window;
-import java.awt.event.ActionEvent;
-import java.util.Random;
-import java.util.List;
-
-public class GamePanel extends JPanel {
-
-    private static final int TILE_SIZE = 32;
-    private static final int GRID_SIZE = 20;
-    private static final int HUD_HEIGHT = 24;
-
-    private static final int PANEL_WIDTH = GRID_SIZE * TILE_SIZE;
-    private static final int PANEL_HEIGHT =
-            HUD_HEIGHT + GRID_SIZE * TILE_SIZE;
-
-    private static final int TIMER_DELAY_MS = 1000;
-    private static final int POWERUP_DURATION_SECONDS = 5;
-
-    private GameState gameState;
-    private Timer gameTimer;
-    private final Random random;
-
-    private String currentLevelPath;
-    
-    public GamePanel() {
-
-        this.random = new Random();
-
-        setPreferredSize(new Dimension(PANEL_WIDTH, PANEL_HEIGHT));
-        setBackground(Color.BLACK);
-
-        setFocusable(true);
-        setRequestFocusEnabled(true);
-
-        setupKeyBindings();
-
-        SwingUtilities.invokeLater(this::requestFocusInWindow);
-    }
-    
-    public void setCurrentLevelPath(String path) {
-        this.currentLevelPath = path;
-    }
-    
-    public void startGame() {
-        if (currentLevelPath == null) {
-            JOptionPane.showMessageDialog(this,
-                    "No level selected.",
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-         String playerName = null;
-        while (playerName == null || playerName.isBlank()) {
-            playerName = JOptionPane.showInputDialog(this, "Enter your player name:");
-            if (playerName == null) {
-                 return;
-            }
-        }
-
-        startNewGame(currentLevelPath, playerName);
-    }
-    /**
-     * @param path
-     * @param playerName 
-     */
-    public void startNewGame(String path, String playerName) {
-        try {
-            LoadedLevel ll = LevelLoader.loadFromFile(path);
-            this.gameState = new GameState(ll);
-            this.gameState.setPlayerName(playerName);
-
-            restartTimer();
-
-            SwingUtilities.invokeLater(this::requestFocusInWindow);
-
-            repaint();
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this,
-                    "Failed to load level:\n" + ex.getMessage(),
-                    "Level Load Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
-    }
-    
-    private void restartTimer() {
-        if (gameTimer != null)
-            gameTimer.stop();
-
-        if (gameState == null)
-            return;
-
-        gameState.resetElapsedSeconds();
-        gameState.setWolfLastMoveSecond(0);
-        gameState.setGameOver(false);
-
-        gameTimer = new Timer(TIMER_DELAY_MS, (ActionEvent e) -> {
-
-            if (gameState == null || gameState.isGameOver()) {
-                gameTimer.stop();
-                return;
-            }
-
-            gameState.incrementElapsedSeconds();
-            updatePowerUps();
-            updateWolfMovement();
-            checkWolfCollision();
-
-            updateWindowTitle();
-            repaint();
-        });
-
-        gameTimer.start();
-        updateWindowTitle();
-    }
-    
-    private void updatePowerUps() {
-        Player p = gameState.getPlayer();
-        int now = gameState.getElapsedSeconds();
-
-        if (p.isSpeedActive() &&
-                now >= p.getSpeedExpiresAtSecond())
-            p.deactivateSpeed();
-
-        if (p.isInvisActive() &&
-                now >= p.getInvisExpiresAtSecond())
-            p.deactivateInvisibility();
-    }
-    
-    private void updateWolfMovement() {
-        Player player = gameState.getPlayer();
-        GameMap map = gameState.getMap();
-        List<Wolf> wolves = gameState.getWolves();
-
-        int now = gameState.getElapsedSeconds();
-        int lastMove = gameState.getWolfLastMoveSecond();
-
-        int interval = player.isSpeedActive() ? 2 : 1;
-
-        if (now - lastMove >= interval) {
-
-            for (Wolf w : wolves)
-                w.update(map, random);
-
-            gameState.setWolfLastMoveSecond(now);
-        }
-    }
-    
-    private void checkWolfCollision() {
-        Player p = gameState.getPlayer();
-        List<Wolf> wolves = gameState.getWolves();
-
-        if (p.isInvisActive())
-            return;
-
-        int pr = p.getRow();
-        int pc = p.getCol();
-
-        boolean hit = false;
-
-        for (Wolf w : wolves) {
-            int wr = w.getRow();
-            int wc = w.getCol();
-
-            boolean same = (pr == wr && pc == wc);
-            boolean adj = (Math.abs(pr - wr) + Math.abs(pc - wc) == 1);
-
-            if (same || adj) {
-                hit = true;
-                break;
-            }
-        }
-
-        if (!hit)
-            return;
-
-        p.decrementLives();
-
-        if (p.getLives() > 0) {
-
-            int sr = gameState.getMap().getCampfireRow();
-            int sc = gameState.getMap().getCampfireCol();
-            p.respawn(sr, sc);
-
-            JOptionPane.showMessageDialog(this,
-                    "Wolves caught you! Lives left: " + p.getLives(),
-                    "Caught!",
-                    JOptionPane.WARNING_MESSAGE);
-
-        } else {
-            handleGameOver();
-        }
-    }
-    
-    private void handleGameOver() {
-        gameState.setGameOver(true);
-        if (gameTimer != null)
-            gameTimer.stop();
-
-        Player p = gameState.getPlayer();
-        String levelName = gameState.getLevelName();
-        String playerName = gameState.getPlayerName();
-
-         HighscoreDatabase.saveScore(
-                playerName,
-                levelName,
-                p.getMushroomsCollected(),
-                gameState.getElapsedSeconds()
-        );
-
-        JOptionPane.showMessageDialog(this,
-                "GAME OVER\nMushrooms: " + p.getMushroomsCollected()
-                        + "\nTime: " + gameState.getElapsedSeconds(),
-                "Game Over",
-                JOptionPane.INFORMATION_MESSAGE);
-    }
-    
-    private void setupKeyBindings() {
-
-        InputMap im = getInputMap(WHEN_IN_FOCUSED_WINDOW);
-        ActionMap am = getActionMap();
-
-        im.put(KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_W, 0), "up");
-        im.put(KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_S, 0), "down");
-        im.put(KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_A, 0), "left");
-        im.put(KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_D, 0), "right");
-
-        am.put("up", new javax.swing.AbstractAction() {
-            @Override public void actionPerformed(ActionEvent e) {
-                handlePlayerMove(-1, 0);
-            }
-        });
-        am.put("down", new javax.swing.AbstractAction() {
-            @Override public void actionPerformed(ActionEvent e) {
-                handlePlayerMove(1, 0);
-            }
-        });
-        am.put("left", new javax.swing.AbstractAction() {
-            @Override public void actionPerformed(ActionEvent e) {
-                handlePlayerMove(0, -1);
-            }
-        });
-        am.put("right", new javax.swing.AbstractAction() {
-            @Override public void actionPerformed(ActionEvent e) {
-                handlePlayerMove(0, 1);
-            }
-        });
-    }
-    /**
-     * @param dr
-     * @param dc 
-     */
-    private void handlePlayerMove(int dr, int dc) {
-
-        if (gameState == null || gameState.isGameOver())
-            return;
-
-        Player p = gameState.getPlayer();
-        GameMap m = gameState.getMap();
-
-        boolean moved = p.moveBy(dr, dc, m);
-        if (!moved)
-            return;
-
-        int r = p.getRow();
-        int c = p.getCol();
-        TileType t = m.getTile(r, c);
-
- 
-        if (t == TileType.MUSHROOM) {
-
-            m.setTile(r, c, TileType.GROUND);
-            p.incrementMushroomsCollected();
-            repaint(); // show removal
-
-            if (!m.hasAnyMushrooms()) {
-
-                if (gameTimer != null)
-                    gameTimer.stop();
-
-                 HighscoreDatabase.saveScore(
-                        gameState.getPlayerName(),
-                        gameState.getLevelName(),
-                        p.getMushroomsCollected(),
-                        gameState.getElapsedSeconds()
-                );
-
-                SwingUtilities.invokeLater(() -> {
-                    JOptionPane.showMessageDialog(this,
-                            "Level Cleared!\nMushrooms: "
-                                    + p.getMushroomsCollected()
-                                    + "\nTime: " + gameState.getElapsedSeconds(),
-                            "Level Cleared",
-                            JOptionPane.INFORMATION_MESSAGE);
-
-                     startNewGame(currentLevelPath, gameState.getPlayerName());
-                });
-
-                return;
-            }
-        }
-
-         if (t == TileType.SPEED_POWERUP) {
-            m.setTile(r, c, TileType.GROUND);
-            p.activateSpeed(gameState.getElapsedSeconds(), POWERUP_DURATION_SECONDS);
-        } else if (t == TileType.INVIS_POWERUP) {
-            m.setTile(r, c, TileType.GROUND);
-            p.activateInvisibility(gameState.getElapsedSeconds(), POWERUP_DURATION_SECONDS);
-        } else if (t == TileType.EXTRA_LIFE) {
-            m.setTile(r, c, TileType.GROUND);
-            p.incrementLives();
-        }
-
-         checkWolfCollision();
-
-        updateWindowTitle();
-        repaint();
-    }
-    
-    private void updateWindowTitle() {
-        Window w = SwingUtilities.getWindowAncestor(this);
-        if (!(w instanceof javax.swing.JFrame frame))
-            return;
-
-        Player p = gameState.getPlayer();
-
-        String title = "Forest Escape - " + gameState.getLevelName()
-                + " | Player: " + gameState.getPlayerName()
-                + " | Lives: " + p.getLives()
-                + " | Mushrooms: " + p.getMushroomsCollected()
-                + " | Time: " + gameState.getElapsedSeconds();
-
-        if (p.isSpeedActive())
-            title += " | SPEED";
-
-        if (p.isInvisActive())
-            title += " | INVISIBLE";
-
-        frame.setTitle(title);
-    }
-    /**
-     * @param g 
-     */
-    @Override
-    protected void paintComponent(Graphics g) {
-
-        super.paintComponent(g);
-
-        if (gameState == null) {
-            g.setColor(Color.WHITE);
-            g.drawString("Select a level and press Start Game.", 20, 40);
-            return;
-        }
-
-        GameMap map = gameState.getMap();
-        Player player = gameState.getPlayer();
-        List<Wolf> wolves = gameState.getWolves();
-
-        Graphics2D g2 = (Graphics2D) g.create();
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-                RenderingHints.VALUE_ANTIALIAS_ON);
-
-        g2.setColor(Color.BLACK);
-        g2.fillRect(0, 0, getWidth(), getHeight());
-
-        // HUD
-        g2.setColor(Color.WHITE);
-        g2.drawString("Lives: " + player.getLives()
-                        + "  Mushrooms: " + player.getMushroomsCollected()
-                        + "  Time: " + gameState.getElapsedSeconds(),
-                10, 16);
-
-        for (int r = 0; r < map.getRows(); r++) {
-            for (int c = 0; c < map.getCols(); c++) {
-
-                int x = c * TILE_SIZE;
-                int y = HUD_HEIGHT + r * TILE_SIZE;
-
-                if (!isTileVisible(r, c, player)) {
-                    g2.setColor(Color.DARK_GRAY);
-                    g2.fillRect(x, y, TILE_SIZE, TILE_SIZE);
-                    continue;
-                }
-
-                TileType t = map.getTile(r, c);
-
-                g2.setColor(new Color(34, 139, 34));
-                g2.fillRect(x, y, TILE_SIZE, TILE_SIZE);
-
-                switch (t) {
-                    case TREE -> {
-                        g2.setColor(new Color(0, 80, 0));
-                        g2.fillRect(x + 4, y + 4, TILE_SIZE - 8, TILE_SIZE - 8);
-                    }
-                    case ROCK -> {
-                        g2.setColor(Color.GRAY);
-                        g2.fillOval(x + 5, y + 5,
-                                TILE_SIZE - 10, TILE_SIZE - 10);
-                    }
-                    case BUSH -> {
-                        g2.setColor(new Color(0, 150, 0));
-                        g2.fillOval(x + 3, y + 3,
-                                TILE_SIZE - 6, TILE_SIZE - 6);
-                    }
-                    case CAMPFIRE -> {
-                        g2.setColor(new Color(139, 69, 19));
-                        g2.fillRect(x + 6, y + TILE_SIZE - 8,
-                                TILE_SIZE - 12, 4);
-                        g2.setColor(Color.ORANGE);
-                        g2.fillOval(x + 8, y + 4,
-                                TILE_SIZE - 16, TILE_SIZE - 8);
-                    }
-                    case MUSHROOM -> {
-                        g2.setColor(Color.WHITE);
-                        g2.fillRect(x + 10, y + 14,
-                                TILE_SIZE - 20, TILE_SIZE - 18);
-                        g2.setColor(Color.RED);
-                        g2.fillOval(x + 6, y + 4,
-                                TILE_SIZE - 12, TILE_SIZE - 16);
-                    }
-                    case SPEED_POWERUP -> {
-                        g2.setColor(Color.YELLOW);
-                        g2.fillOval(x + 8, y + 8,
-                                TILE_SIZE - 16, TILE_SIZE - 16);
-                        g2.setColor(Color.BLACK);
-                        g2.drawString("S", x + TILE_SIZE / 2 - 3,
-                                y + TILE_SIZE / 2 + 4);
-                    }
-                    case INVIS_POWERUP -> {
-                        g2.setColor(Color.CYAN);
-                        g2.fillOval(x + 8, y + 8,
-                                TILE_SIZE - 16, TILE_SIZE - 16);
-                        g2.setColor(Color.BLACK);
-                        g2.drawString("I", x + TILE_SIZE / 2 - 3,
-                                y + TILE_SIZE / 2 + 4);
-                    }
-                    case EXTRA_LIFE -> {
-                        g2.setColor(Color.PINK);
-                        g2.fillOval(x + 8, y + 8,
-                                TILE_SIZE - 16, TILE_SIZE - 16);
-                        g2.setColor(Color.BLACK);
-                        g2.drawString("L", x + TILE_SIZE / 2 - 3,
-                                y + TILE_SIZE / 2 + 4);
-                    }
-                }
-
-                g2.setColor(new Color(0, 0, 0, 80));
-                g2.drawRect(x, y, TILE_SIZE, TILE_SIZE);
-            }
-        }
-
-        for (Wolf w : wolves) {
-            if (isTileVisible(w.getRow(), w.getCol(), player)) {
-                int x = w.getCol() * TILE_SIZE;
-                int y = HUD_HEIGHT + w.getRow() * TILE_SIZE;
-                g2.setColor(Color.RED);
-                g2.fillOval(x + 6, y + 6,
-                        TILE_SIZE - 12, TILE_SIZE - 12);
-                g2.setColor(Color.WHITE);
-                g2.drawString("W",
-                        x + TILE_SIZE / 2 - 4,
-                        y + TILE_SIZE / 2 + 5);
-            }
-        }
-
-        if (isTileVisible(player.getRow(), player.getCol(), player)) {
-            int px = player.getCol() * TILE_SIZE;
-            int py = HUD_HEIGHT + player.getRow() * TILE_SIZE;
-            g2.setColor(Color.BLUE);
-            g2.fillOval(px + 6, py + 6,
-                    TILE_SIZE - 12, TILE_SIZE - 12);
-        }
-
-        g2.dispose();
-    }
-    /**
-     * @param r
-     * @param c
-     * @param p
-     * @return 
-     */
-    private boolean isTileVisible(int r, int c, Player p) {
-        int dr = Math.abs(r - p.getRow());
-        int dc = Math.abs(c - p.getCol());
-        return Math.max(dr, dc) <= 3;  
-    }
-}
+package forestgame;
+
+import javax.swing.JPanel;
+import javax.swing.Timer;
+import javax.swing.JOptionPane;
+import javax.swing.KeyStroke;
+import javax.swing.ActionMap;
+import javax.swing.InputMap;
+import javax.swing.SwingUtilities;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.DisplayMode;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Window;
+import java.awt.event.ActionEvent;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class GamePanel extends JPanel {
+
+    private static final int TILE_SIZE = 32;
+    private static final int VIEW_TILES = 20;   // max tiles shown per axis
+    private static final int HUD_HEIGHT = 24;
+
+    private static final int PANEL_WIDTH = VIEW_TILES * TILE_SIZE;
+    private static final int PANEL_HEIGHT =
+            HUD_HEIGHT + VIEW_TILES * TILE_SIZE;
+
+    private static final int TIMER_DELAY_MS = 1000;
+
+    // how a tile is covered by the fog of war
+    private static final int VISIBLE = 0;
+    private static final int EXPLORED = 1;
+    private static final int HIDDEN = 2;
+    private static final Color EXPLORED_SHADE = new Color(0, 0, 0, 150);
+
+    // actors glide to their new tile over this long after a step
+    private static final int MOVE_ANIMATION_MS = 200;
+    private static final int DEFAULT_REFRESH_RATE = 60;
+
+    // one daemon thread, so replays are written in order and never on the EDT
+    private static final ExecutorService REPLAY_WRITER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "replay-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private GameState gameState;
+    private SimulationEngine engine;
+    private Timer gameTimer;
+    private Timer renderTimer;             // display refresh rate, only while animating
+    private final FrameStats frameStats = new FrameStats();
+
+    private String currentLevelPath;
+    private int fogRadius = Visibility.DEFAULT_RADIUS;
+    private boolean fogLineOfSight = Visibility.DEFAULT_LINE_OF_SIGHT;
+    private String currentTemplatePath;
+    private LevelTemplate currentTemplate;
+
+    // inputs of the running session, saved when it ends
+    private Replay replay;
+
+    // top-left tile of the scrolling viewport
+    private int viewRow;
+    private int viewCol;
+
+    // what was on screen before the current step, to repaint only what changed
+    private int shownViewRow;
+    private int shownViewCol;
+    private int shownPlayerRow;
+    private int shownPlayerCol;
+    private int[] shownWolfRows = new int[0];
+    private int[] shownWolfCols = new int[0];
+
+    // actors being animated from their previous tile
+    private int[] movingWolves = new int[16];
+    private int[] movingFromRows = new int[16];
+    private int[] movingFromCols = new int[16];
+    private int movingWolfCount;
+    private long wolvesMovedAt;            // System.nanoTime(), valid while wolvesAnimating
+    private boolean wolvesAnimating;
+    private int playerFromRow;
+    private int playerFromCol;
+    private long playerMovedAt;            // System.nanoTime(), valid while playerAnimating
+    private boolean playerAnimating;
+
+    private TileAtlas atlas;                 // created on first paint
+
+    // static terrain of the viewport, rebuilt when it scrolls
+    private BufferedImage background;
+    private GameMap backgroundMap;
+    private int backgroundRow;
+    private int backgroundCol;
+    private int backgroundVersion;
+    
+    public GamePanel() {
+
+        setPreferredSize(new Dimension(PANEL_WIDTH, PANEL_HEIGHT));
+        setBackground(Color.BLACK);
+
+        setFocusable(true);
+        setRequestFocusEnabled(true);
+
+        setupKeyBindings();
+
+        SwingUtilities.invokeLater(this::requestFocusInWindow);
+    }
+    
+    public void setCurrentLevelPath(String path) {
+        this.currentLevelPath = path;
+    }
+
+    /**
+     * Sets the fog of war used from the next (re)started level on.
+     *
+     * @param radius      how many tiles the player sees in each direction
+     * @param lineOfSight whether trees and rocks block the view
+     */
+    public void setFog(int radius, boolean lineOfSight) {
+        this.fogRadius = radius;
+        this.fogLineOfSight = lineOfSight;
+    }
+    
+    /**
+     * Shows the given state without starting the timer or the key-driven
+     * simulation. Used for offline rendering (benchmarks, replays).
+     *
+     * @param state
+     */
+    public void setGameState(GameState state) {
+        stopTimers();
+
+        this.gameState = state;
+        this.engine = null;
+        resetAnimation();
+        updatePanelSize();
+        repaint();
+    }
+    
+    public void startGame() {
+        if (currentLevelPath == null) {
+            JOptionPane.showMessageDialog(this,
+                    "No level selected.",
+                    "Error",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+         String playerName = null;
+        while (playerName == null || playerName.isBlank()) {
+            playerName = JOptionPane.showInputDialog(this, "Enter your player name:");
+            if (playerName == null) {
+                 return;
+            }
+        }
+
+        startNewGame(currentLevelPath, playerName);
+    }
+    /**
+     * @param path
+     * @param playerName 
+     */
+    public void startNewGame(String path, String playerName) {
+        try {
+            currentTemplate = LevelCache.getTemplate(path);
+            currentTemplatePath = path;
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(this,
+                    "Failed to load level:\n" + ex.getMessage(),
+                    "Level Load Error",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        restartLevel(playerName);
+    }
+    /**
+     * Starts the current level again from a copy of its cached template,
+     * without going back to the file.
+     *
+     * @param playerName 
+     */
+    private void restartLevel(String playerName) {
+        this.gameState = new GameState(currentTemplate.newLevel());
+        this.gameState.setPlayerName(playerName);
+        this.gameState.setVisibility(fogRadius, fogLineOfSight);
+        resetAnimation();
+        updatePanelSize();
+
+        restartTimer();
+
+        SwingUtilities.invokeLater(this::requestFocusInWindow);
+
+        repaint();
+    }
+    
+    /**
+     * Sizes the panel to the map, capped at VIEW_TILES in each direction;
+     * larger maps scroll with the player.
+     */
+    private void updatePanelSize() {
+        GameMap map = gameState.getMap();
+        Dimension size = new Dimension(
+                Math.min(map.getCols(), VIEW_TILES) * TILE_SIZE,
+                HUD_HEIGHT + Math.min(map.getRows(), VIEW_TILES) * TILE_SIZE);
+
+        if (size.equals(getPreferredSize()))
+            return;
+
+        setPreferredSize(size);
+        revalidate();
+
+        Window w = SwingUtilities.getWindowAncestor(this);
+        if (w != null)
+            w.pack();
+    }
+    /**
+     * Centers the viewport on the player, clamped to the map edges.
+     */
+    private void updateViewport() {
+        GameMap map = gameState.getMap();
+        Player p = gameState.getPlayer();
+
+        int viewRows = Math.min(map.getRows(), VIEW_TILES);
+        int viewCols = Math.min(map.getCols(), VIEW_TILES);
+
+        viewRow = Math.max(0, Math.min(p.getRow() - viewRows / 2, map.getRows() - viewRows));
+        viewCol = Math.max(0, Math.min(p.getCol() - viewCols / 2, map.getCols() - viewCols));
+    }
+    
+    private void restartTimer() {
+        stopTimers();
+
+        if (gameState == null)
+            return;
+
+        engine = new SimulationEngine(gameState);
+        engine.reset();
+        replay = new Replay(currentTemplatePath, gameState.getLevelName(),
+                gameState.getSeed(), engine.getWolfBehavior());
+
+        gameTimer = new Timer(TIMER_DELAY_MS, (ActionEvent e) -> {
+
+            if (gameState == null || gameState.isGameOver()) {
+                gameTimer.stop();
+                return;
+            }
+
+            rememberShownState();
+            StepResult result = engine.tick();
+            repaintChanged();
+            handleStepResult(result);
+
+            updateWindowTitle();
+        });
+
+        gameTimer.start();
+        updateWindowTitle();
+    }
+
+    private void stopTimers() {
+        if (gameTimer != null)
+            gameTimer.stop();
+        if (renderTimer != null)
+            renderTimer.stop();
+    }
+
+    /**
+     * Starts the render loop if it is not running: independent of the
+     * one-second simulation tick, it fires at the display refresh rate and
+     * repaints the tiles of actors that are still gliding to their new
+     * position. It stops itself once nothing is animating.
+     */
+    private void startRenderTimer() {
+        if (renderTimer == null) {
+            int refreshRate = DEFAULT_REFRESH_RATE;
+            GraphicsConfiguration config = getGraphicsConfiguration();
+            if (config != null) {
+                int rate = config.getDevice().getDisplayMode().getRefreshRate();
+                if (rate != DisplayMode.REFRESH_RATE_UNKNOWN)
+                    refreshRate = rate;
+            }
+
+            renderTimer = new Timer(Math.max(1, 1000 / refreshRate), (ActionEvent e) -> repaintAnimatedActors());
+            renderTimer.setCoalesce(true);
+        }
+        if (!renderTimer.isRunning())
+            renderTimer.start();
+    }
+
+    /**
+     * @return frame-time metrics of the render loop
+     */
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+    /**
+     * Reacts to the outcome of a simulation step with the matching dialogs.
+     *
+     * @param result
+     */
+    private void handleStepResult(StepResult result) {
+        switch (result) {
+            case CAUGHT -> JOptionPane.showMessageDialog(this,
+                    "Wolves caught you! Lives left: " + gameState.getPlayer().getLives(),
+                    "Caught!",
+                    JOptionPane.WARNING_MESSAGE);
+            case GAME_OVER -> handleGameOver();
+            case LEVEL_CLEARED -> handleLevelCleared();
+            default -> { }
+        }
+    }
+    
+    private void handleGameOver() {
+        if (gameTimer != null)
+            gameTimer.stop();
+
+        Player p = gameState.getPlayer();
+        String levelName = gameState.getLevelName();
+        String playerName = gameState.getPlayerName();
+
+         HighscoreDatabase.saveScore(
+                playerName,
+                levelName,
+                p.getMushroomsCollected(),
+                gameState.getElapsedSeconds(),
+                gameState.getSeed()
+        );
+        saveReplay(StepResult.GAME_OVER);
+
+        JOptionPane.showMessageDialog(this,
+                "GAME OVER\nMushrooms: " + p.getMushroomsCollected()
+                        + "\nTime: " + gameState.getElapsedSeconds(),
+                "Game Over",
+                JOptionPane.INFORMATION_MESSAGE);
+    }
+    
+    private void setupKeyBindings() {
+
+        InputMap im = getInputMap(WHEN_IN_FOCUSED_WINDOW);
+        ActionMap am = getActionMap();
+
+        im.put(KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_W, 0), "up");
+        im.put(KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_S, 0), "down");
+        im.put(KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_A, 0), "left");
+        im.put(KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_D, 0), "right");
+
+        am.put("up", new javax.swing.AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e) {
+                handlePlayerInput('W');
+            }
+        });
+        am.put("down", new javax.swing.AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e) {
+                handlePlayerInput('S');
+            }
+        });
+        am.put("left", new javax.swing.AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e) {
+                handlePlayerInput('A');
+            }
+        });
+        am.put("right", new javax.swing.AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e) {
+                handlePlayerInput('D');
+            }
+        });
+    }
+    /**
+     * Records the input for the replay and applies it.
+     *
+     * @param input W, A, S or D
+     */
+    private void handlePlayerInput(char input) {
+
+        if (engine == null || gameState.isGameOver())
+            return;
+
+        replay.record(gameState.getElapsedSeconds(), input);
+
+        rememberShownState();
+        StepResult result = engine.applyInput(input);
+        if (result == StepResult.BLOCKED)
+            return;
+
+        repaintChanged();
+        handleStepResult(result);
+
+        updateWindowTitle();
+    }
+    
+    private void handleLevelCleared() {
+        if (gameTimer != null)
+            gameTimer.stop();
+
+        Player p = gameState.getPlayer();
+
+         HighscoreDatabase.saveScore(
+                gameState.getPlayerName(),
+                gameState.getLevelName(),
+                p.getMushroomsCollected(),
+                gameState.getElapsedSeconds(),
+                gameState.getSeed()
+        );
+        saveReplay(StepResult.LEVEL_CLEARED);
+
+        SwingUtilities.invokeLater(() -> {
+            JOptionPane.showMessageDialog(this,
+                    "Level Cleared!\nMushrooms: "
+                            + p.getMushroomsCollected()
+                            + "\nTime: " + gameState.getElapsedSeconds(),
+                    "Level Cleared",
+                    JOptionPane.INFORMATION_MESSAGE);
+
+             restartLevel(gameState.getPlayerName());
+        });
+    }
+    
+    /**
+     * Writes the finished session into the replay directory on the
+     * replay-writer thread, so its score can be verified later with
+     * ReplayRunner. The recording is handed off and no longer touched here.
+     *
+     * @param result
+     */
+    private void saveReplay(StepResult result) {
+        if (replay == null)
+            return;
+
+        Replay finished = replay;
+        replay = null;
+        finished.finish(result,
+                gameState.getPlayer().getMushroomsCollected(),
+                gameState.getElapsedSeconds());
+
+        REPLAY_WRITER.execute(() -> {
+            try {
+                finished.save(Paths.get(ReplayRunner.DEFAULT_DIR));
+            } catch (IOException e) {
+                System.err.println("Failed to save replay: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Remembers the viewport and actor positions before a simulation step.
+     */
+    private void rememberShownState() {
+        updateViewport();
+        shownViewRow = viewRow;
+        shownViewCol = viewCol;
+
+        Player p = gameState.getPlayer();
+        shownPlayerRow = p.getRow();
+        shownPlayerCol = p.getCol();
+
+        WolfPack pack = gameState.getWolfPack();
+        if (shownWolfRows.length != pack.size()) {
+            shownWolfRows = new int[pack.size()];
+            shownWolfCols = new int[pack.size()];
+        }
+        System.arraycopy(pack.rows, 0, shownWolfRows, 0, pack.size());
+        System.arraycopy(pack.cols, 0, shownWolfCols, 0, pack.size());
+    }
+
+    /**
+     * Repaints the HUD and only the tiles that may look different after a
+     * step: the fog around the old and new player position (which also
+     * covers picked-up items) and the old and new tiles of wolves that
+     * moved. A scrolled viewport repaints everything.
+     */
+    private void repaintChanged() {
+        startAnimations();
+
+        updateViewport();
+        if (viewRow != shownViewRow || viewCol != shownViewCol) {
+            repaint();
+            return;
+        }
+
+        repaint(0, 0, getWidth(), HUD_HEIGHT);
+
+        Player p = gameState.getPlayer();
+        int fogRadius = gameState.getVisibility().getRadius();
+        repaintTiles(shownPlayerRow, shownPlayerCol, fogRadius);
+        if (p.getRow() != shownPlayerRow || p.getCol() != shownPlayerCol)
+            repaintTiles(p.getRow(), p.getCol(), fogRadius);
+
+        WolfPack pack = gameState.getWolfPack();
+        for (int i = 0; i < pack.size(); i++) {
+            if (pack.rows[i] != shownWolfRows[i] || pack.cols[i] != shownWolfCols[i]) {
+                repaintTiles(shownWolfRows[i], shownWolfCols[i], 0);
+                repaintTiles(pack.rows[i], pack.cols[i], 0);
+            }
+        }
+    }
+
+    /**
+     * Starts gliding the player and the wolves near the viewport that moved
+     * in the last step. Wolves that did not move keep their running
+     * animation, so a key press does not cut short the wolves' last move.
+     */
+    private void startAnimations() {
+        long now = System.nanoTime();
+        Player p = gameState.getPlayer();
+
+        // a respawn jumps straight to the campfire
+        if (Math.abs(p.getRow() - shownPlayerRow) + Math.abs(p.getCol() - shownPlayerCol) == 1) {
+            playerFromRow = shownPlayerRow;
+            playerFromCol = shownPlayerCol;
+            playerMovedAt = now;
+            playerAnimating = true;
+        }
+
+        WolfPack pack = gameState.getWolfPack();
+        int count = 0;
+        for (int i = 0; i < pack.size(); i++) {
+            if (pack.rows[i] == shownWolfRows[i] && pack.cols[i] == shownWolfCols[i])
+                continue;
+            if (!isNearViewport(pack.rows[i], pack.cols[i])
+                    && !isNearViewport(shownWolfRows[i], shownWolfCols[i]))
+                continue;
+
+            if (count == movingWolves.length) {
+                movingWolves = Arrays.copyOf(movingWolves, count * 2);
+                movingFromRows = Arrays.copyOf(movingFromRows, count * 2);
+                movingFromCols = Arrays.copyOf(movingFromCols, count * 2);
+            }
+            movingWolves[count] = i;
+            movingFromRows[count] = shownWolfRows[i];
+            movingFromCols[count] = shownWolfCols[i];
+            count++;
+        }
+
+        if (count > 0) {
+            movingWolfCount = count;
+            wolvesMovedAt = now;
+            wolvesAnimating = true;
+        }
+
+        if (wolvesAnimating || playerAnimating)
+            startRenderTimer();
+    }
+
+    private void resetAnimation() {
+        movingWolfCount = 0;
+        wolvesAnimating = false;
+        playerAnimating = false;
+        stopRenderLoop();
+    }
+
+    /**
+     * Stops the render timer; the pause until the next animation does not
+     * count as a frame.
+     */
+    private void stopRenderLoop() {
+        if (renderTimer != null)
+            renderTimer.stop();
+        frameStats.pause();
+    }
+
+    private boolean isNearViewport(int row, int col) {
+        return row >= viewRow - 1 && row <= viewRow + VIEW_TILES
+                && col >= viewCol - 1 && col <= viewCol + VIEW_TILES;
+    }
+
+    /**
+     * Fraction of the move animation that has passed, from 0 to 1 (1 when
+     * not animating).
+     */
+    private static double animationProgress(boolean animating, long startedAt, long now) {
+        if (!animating)
+            return 1.0;
+        return Math.min(1.0, (now - startedAt) / (MOVE_ANIMATION_MS * 1_000_000.0));
+    }
+
+    /**
+     * Called every render frame while something is animating: repaints the
+     * old and new tile of every gliding actor. The frame after the last
+     * animation ends is repainted too, so actors settle on their tile, and
+     * then the render loop stops.
+     */
+    private void repaintAnimatedActors() {
+        if (gameState == null) {
+            stopRenderLoop();
+            return;
+        }
+
+        long now = System.nanoTime();
+        boolean wolvesMoving = animationProgress(wolvesAnimating, wolvesMovedAt, now) < 1.0;
+        boolean playerMoving = animationProgress(playerAnimating, playerMovedAt, now) < 1.0;
+
+        updateViewport();
+        WolfPack pack = gameState.getWolfPack();
+        for (int k = 0; k < movingWolfCount; k++) {
+            int i = movingWolves[k];
+            repaintTiles(movingFromRows[k], movingFromCols[k], 0);
+            repaintTiles(pack.rows[i], pack.cols[i], 0);
+        }
+
+        Player p = gameState.getPlayer();
+        repaintTiles(playerFromRow, playerFromCol, 0);
+        repaintTiles(p.getRow(), p.getCol(), 0);
+
+        wolvesAnimating = wolvesMoving;
+        playerAnimating = playerMoving;
+        if (!wolvesMoving && !playerMoving)
+            stopRenderLoop();
+    }
+
+    /**
+     * Requests a repaint of the square of tiles around (row, col), clipped
+     * to the viewport.
+     */
+    private void repaintTiles(int row, int col, int radius) {
+        int viewRows = Math.min(gameState.getMap().getRows(), VIEW_TILES);
+        int viewCols = Math.min(gameState.getMap().getCols(), VIEW_TILES);
+
+        int top = Math.max(row - radius, viewRow);
+        int left = Math.max(col - radius, viewCol);
+        int bottom = Math.min(row + radius, viewRow + viewRows - 1);
+        int right = Math.min(col + radius, viewCol + viewCols - 1);
+        if (top > bottom || left > right)
+            return;
+
+        repaint((left - viewCol) * TILE_SIZE,
+                HUD_HEIGHT + (top - viewRow) * TILE_SIZE,
+                (right - left + 1) * TILE_SIZE,
+                (bottom - top + 1) * TILE_SIZE);
+    }
+
+    private void updateWindowTitle() {
+        Window w = SwingUtilities.getWindowAncestor(this);
+        if (!(w instanceof javax.swing.JFrame frame))
+            return;
+
+        Player p = gameState.getPlayer();
+
+        String title = "Forest Escape - " + gameState.getLevelName()
+                + " | Player: " + gameState.getPlayerName()
+                + " | Lives: " + p.getLives()
+                + " | Mushrooms: " + p.getMushroomsCollected()
+                + " | Time: " + gameState.getElapsedSeconds();
+
+        if (p.isSpeedActive())
+            title += " | SPEED";
+
+        if (p.isInvisActive())
+            title += " | INVISIBLE";
+
+        frame.setTitle(title);
+    }
+    /**
+     * @param g 
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        long start = System.nanoTime();
+        if (wolvesAnimating || playerAnimating)
+            frameStats.frameStarted(start);     // a frame of the render loop
+
+        super.paintComponent(g);
+        paintFrame(g);
+
+        frameStats.painted(System.nanoTime() - start);
+    }
+    /**
+     * Paints the part of the frame inside the clip: the cached terrain of
+     * the viewport for the tiles around the player, item and actor sprites
+     * from the atlas on top, and fog everywhere else. Actors that moved in
+     * the last MOVE_ANIMATION_MS are drawn between their old and new tile.
+     *
+     * @param g 
+     */
+    private void paintFrame(Graphics g) {
+
+        if (gameState == null) {
+            g.setColor(Color.WHITE);
+            g.drawString("Select a level and press Start Game.", 20, 40);
+            return;
+        }
+
+        GameMap map = gameState.getMap();
+        Player player = gameState.getPlayer();
+        WolfGrid wolfGrid = gameState.getWolfGrid();
+        TileAtlas atlas = getAtlas();
+
+        updateViewport();
+        int viewRows = Math.min(map.getRows(), VIEW_TILES);
+        int viewCols = Math.min(map.getCols(), VIEW_TILES);
+
+        // only the tiles inside the clip (the dirty region) are drawn
+        Rectangle clip = g.getClipBounds();
+        if (clip == null)
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+
+        int firstRow = viewRow + Math.max(0, Math.floorDiv(clip.y - HUD_HEIGHT, TILE_SIZE));
+        int firstCol = viewCol + Math.max(0, clip.x / TILE_SIZE);
+        int lastRow = Math.min(viewRow + viewRows,
+                viewRow + Math.floorDiv(clip.y + clip.height - HUD_HEIGHT - 1, TILE_SIZE) + 1);
+        int lastCol = Math.min(viewCol + viewCols,
+                viewCol + (clip.x + clip.width - 1) / TILE_SIZE + 1);
+
+        g.setColor(Color.BLACK);
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        // HUD
+        if (clip.y < HUD_HEIGHT) {
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                    RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setColor(Color.WHITE);
+            g2.drawString("Lives: " + player.getLives()
+                            + "  Mushrooms: " + player.getMushroomsCollected()
+                            + " (" + map.getMushroomsRemaining() + " left)"
+                            + "  Power-ups: " + map.getPowerUpsRemaining()
+                            + "  Time: " + gameState.getElapsedSeconds(),
+                    10, 16);
+            g2.dispose();
+        }
+
+        if (firstRow >= lastRow || firstCol >= lastCol)
+            return;
+
+        Visibility visibility = gameState.getVisibility();
+        updateBackground(map, viewRows, viewCols);
+
+        // terrain for the whole clip; fog and shade are filled over it below
+        int sx = (firstCol - viewCol) * TILE_SIZE;
+        int sy = (firstRow - viewRow) * TILE_SIZE;
+        int w = (lastCol - firstCol) * TILE_SIZE;
+        int h = (lastRow - firstRow) * TILE_SIZE;
+        g.drawImage(background, sx, HUD_HEIGHT + sy, sx + w, HUD_HEIGHT + sy + h,
+                sx, sy, sx + w, sy + h, null);
+
+        long now = System.nanoTime();
+        double wolfProgress = animationProgress(wolvesAnimating, wolvesMovedAt, now);
+        double playerProgress = animationProgress(playerAnimating, playerMovedAt, now);
+
+        for (int r = firstRow; r < lastRow; r++) {
+            int runStart = firstCol;
+            int runState = VISIBLE;
+
+            for (int c = firstCol; c < lastCol; c++) {
+
+                int x = (c - viewCol) * TILE_SIZE;
+                int y = HUD_HEIGHT + (r - viewRow) * TILE_SIZE;
+
+                int state = visibility.isVisible(r, c) ? VISIBLE
+                        : visibility.isExplored(r, c) ? EXPLORED : HIDDEN;
+                if (state != runState) {
+                    fillRun(g, r, runStart, c, runState);
+                    runStart = c;
+                    runState = state;
+                }
+                if (state == HIDDEN)
+                    continue;
+
+                // remembered items stay on explored tiles, wolves do not
+                TileType t = map.getTile(r, c);
+                if (t.isMushroom() || t.isPowerUp())
+                    atlas.drawTile(g, t, x, y);
+                if (state == EXPLORED)
+                    continue;
+
+                // wolves still gliding onto this tile are drawn below
+                int wolves = wolfGrid.countAt(r, c);
+                if (wolves > 0 && wolfProgress < 1.0)
+                    wolves -= countArriving(r, c);
+                if (wolves > 0)
+                    atlas.drawWolf(g, x, y);
+            }
+            fillRun(g, r, runStart, lastCol, runState);
+        }
+
+        if (wolfProgress < 1.0) {
+            WolfPack pack = gameState.getWolfPack();
+            for (int k = 0; k < movingWolfCount; k++) {
+                int i = movingWolves[k];
+                if (!visibility.isVisible(pack.rows[i], pack.cols[i]))
+                    continue;
+                atlas.drawWolf(g,
+                        interpolate(movingFromCols[k], pack.cols[i], viewCol, wolfProgress),
+                        HUD_HEIGHT + interpolate(movingFromRows[k], pack.rows[i], viewRow, wolfProgress));
+            }
+        }
+
+        if (playerProgress < 1.0) {
+            atlas.drawPlayer(g,
+                    interpolate(playerFromCol, player.getCol(), viewCol, playerProgress),
+                    HUD_HEIGHT + interpolate(playerFromRow, player.getRow(), viewRow, playerProgress));
+        } else {
+            atlas.drawPlayer(g,
+                    (player.getCol() - viewCol) * TILE_SIZE,
+                    HUD_HEIGHT + (player.getRow() - viewRow) * TILE_SIZE);
+        }
+    }
+
+    /**
+     * Covers tiles [fromCol, toCol) of a row with fog or the explored shade.
+     */
+    private void fillRun(Graphics g, int row, int fromCol, int toCol, int state) {
+        if (state == VISIBLE || fromCol >= toCol)
+            return;
+
+        g.setColor(state == EXPLORED ? EXPLORED_SHADE : Color.DARK_GRAY);
+        g.fillRect((fromCol - viewCol) * TILE_SIZE,
+                HUD_HEIGHT + (row - viewRow) * TILE_SIZE,
+                (toCol - fromCol) * TILE_SIZE,
+                TILE_SIZE);
+    }
+
+    /**
+     * Pixel offset of an actor gliding from one tile index to the next.
+     */
+    private static int interpolate(int from, int to, int viewStart, double progress) {
+        return (int) Math.round(((from + (to - from) * progress) - viewStart) * TILE_SIZE);
+    }
+
+    /**
+     * @return number of gliding wolves whose new tile is (row, col)
+     */
+    private int countArriving(int row, int col) {
+        WolfPack pack = gameState.getWolfPack();
+        int n = 0;
+        for (int k = 0; k < movingWolfCount; k++) {
+            int i = movingWolves[k];
+            if (pack.rows[i] == row && pack.cols[i] == col)
+                n++;
+        }
+        return n;
+    }
+
+    private TileAtlas getAtlas() {
+        if (atlas == null)
+            atlas = new TileAtlas(TILE_SIZE, getGraphicsConfiguration());
+        return atlas;
+    }
+
+    /**
+     * Renders the static terrain of the viewport (items drawn as ground)
+     * into the background image, unless it already shows the same part of
+     * the same map.
+     */
+    private void updateBackground(GameMap map, int viewRows, int viewCols) {
+        int width = viewCols * TILE_SIZE;
+        int height = viewRows * TILE_SIZE;
+
+        if (background != null && backgroundMap == map
+                && backgroundRow == viewRow && backgroundCol == viewCol
+                && backgroundVersion == map.getTerrainVersion()
+                && background.getWidth() == width && background.getHeight() == height)
+            return;
+
+        if (background == null || background.getWidth() != width || background.getHeight() != height) {
+            GraphicsConfiguration config = getGraphicsConfiguration();
+            background = config != null
+                    ? config.createCompatibleImage(width, height)
+                    : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+
+        Graphics2D g2 = background.createGraphics();
+        for (int r = 0; r < viewRows; r++) {
+            for (int c = 0; c < viewCols; c++) {
+                TileType t = GameMap.terrainOf(map.getTile(viewRow + r, viewCol + c));
+                atlas.drawTile(g2, t, c * TILE_SIZE, r * TILE_SIZE);
+            }
+        }
+        g2.dispose();
+
+        backgroundMap = map;
+        backgroundRow = viewRow;
+        backgroundCol = viewCol;
+        backgroundVersion = map.getTerrainVersion();
+    }
+}
@@ -1,86 +1,174 @@
-package forestgame;
-
-import java.util.List;
-
-/**
- * Holds the mutable runtime state of the current game session.
- */
-public class GameState {
-
-    private final GameMap map;
-    private final Player player;
-    private final List<Wolf> wolves;
-    private final String levelName;
-
-    private String playerName;  // for highscores
-
-    private int elapsedSeconds;
-    private int wolfLastMoveSecond;
-    private boolean gameOver;
-    /**
-     * @param loaded 
-     */
-    public GameState(LoadedLevel loaded) {
-        this.map = loaded.getMap();
-        this.player = loaded.getPlayer();
-        this.wolves = loaded.getWolves();
-        this.levelName = loaded.getLevelName();
-        this.elapsedSeconds = 0;
-        this.wolfLastMoveSecond = 0;
-        this.gameOver = false;
-    }
-
-    public GameMap getMap() {
-        return map;
-    }
-
-    public Player getPlayer() {
-        return player;
-    }
-
-    public List<Wolf> getWolves() {
-        return wolves;
-    }
-
-    public String getLevelName() {
-        return levelName;
-    }
-
-    public String getPlayerName() {
-        return playerName;
-    }
-
-    public void setPlayerName(String playerName) {
-        this.playerName = playerName;
-    }
-
-    public int getElapsedSeconds() {
-        return elapsedSeconds;
-    }
-    
-    public void incrementElapsedSeconds() {
-        elapsedSeconds++;
-    }
-    
-    public void resetElapsedSeconds() {
-        elapsedSeconds = 0;
-    }
-
-    public int getWolfLastMoveSecond() {
-        return wolfLastMoveSecond;
-    }
-
-    public void setWolfLastMoveSecond(int wolfLastMoveSecond) {
-        this.wolfLastMoveSecond = wolfLastMoveSecond;
-    }
-    /**
-     * @return 
-     */
-    public boolean isGameOver() {
-        return gameOver;
-    }
-
-    public void setGameOver(boolean gameOver) {
-        this.gameOver = gameOver;
-    }
-}
+package forestgame;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Holds the mutable runtime state of the current game session.
+ */
+public class GameState {
+
+    private final GameMap map;
+    private final Player player;
+    private final WolfPack wolfPack;
+    private final List<Wolf> wolves;
+    private final WolfGrid wolfGrid;
+    private final String levelName;
+    private final LevelTemplate template;
+
+    private final long seed;
+    private final SplittableRandom random;  // per session, not thread-safe
+
+    private Visibility visibility;
+
+    private String playerName;  // for highscores
+
+    private int elapsedSeconds;
+    private int wolfLastMoveSecond;
+    private boolean gameOver;
+    /**
+     * Creates a session with a fresh random seed.
+     *
+     * @param loaded 
+     */
+    public GameState(LoadedLevel loaded) {
+        this(loaded, ThreadLocalRandom.current().nextLong());
+    }
+    /**
+     * Creates a session whose random events are fully determined by the seed.
+     *
+     * @param loaded 
+     * @param seed 
+     */
+    public GameState(LoadedLevel loaded, long seed) {
+        this.map = loaded.getMap();
+        this.player = loaded.getPlayer();
+        this.wolfPack = new WolfPack(loaded.getWolves());
+        this.wolves = wolfPack.getWolves();
+        this.wolfGrid = new WolfGrid(map.getRows(), map.getCols());
+        for (Wolf w : wolves) {
+            wolfGrid.add(w.getRow(), w.getCol());
+        }
+        this.levelName = loaded.getLevelName();
+        this.template = loaded.getTemplate();
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        // only GamePanel draws the fog, so it turns line of sight on itself
+        setVisibility(Visibility.DEFAULT_RADIUS, false);
+        this.elapsedSeconds = 0;
+        this.wolfLastMoveSecond = 0;
+        this.gameOver = false;
+    }
+
+    /**
+     * @return the fog of war of this session, kept up to date with the player
+     */
+    public Visibility getVisibility() {
+        return visibility;
+    }
+
+    /**
+     * Replaces the fog of war (forgetting explored tiles).
+     *
+     * @param radius      how many tiles the player sees in each direction
+     * @param lineOfSight whether trees and rocks block the view
+     */
+    public void setVisibility(int radius, boolean lineOfSight) {
+        FieldOfView fov = null;
+        if (lineOfSight) {
+            fov = template != null ? template.getFieldOfView() : null;
+            if (fov == null || !fov.isValidFor(map))
+                fov = new FieldOfView(map);
+        }
+        this.visibility = new Visibility(map, radius, fov);
+        visibility.update(player.getRow(), player.getCol());
+    }
+
+    public GameMap getMap() {
+        return map;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public List<Wolf> getWolves() {
+        return wolves;
+    }
+
+    /**
+     * @return array-backed storage of the wolves; getWolves() are read-only views onto it
+     */
+    public WolfPack getWolfPack() {
+        return wolfPack;
+    }
+
+    /**
+     * @return occupancy grid of the wolves, maintained by SimulationEngine
+     */
+    public WolfGrid getWolfGrid() {
+        return wolfGrid;
+    }
+
+    /**
+     * @return precomputed distances of the level, or null if the level was
+     *         not loaded through LevelCache or is too large
+     */
+    public DistanceTable getDistanceTable() {
+        return template != null ? template.getDistanceTable() : null;
+    }
+
+    /**
+     * @return seed of the session's random generator (stored with highscores)
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public SplittableRandom getRandom() {
+        return random;
+    }
+
+    public String getLevelName() {
+        return levelName;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public void setPlayerName(String playerName) {
+        this.playerName = playerName;
+    }
+
+    public int getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+    
+    public void incrementElapsedSeconds() {
+        elapsedSeconds++;
+    }
+    
+    public void resetElapsedSeconds() {
+        elapsedSeconds = 0;
+    }
+
+    public int getWolfLastMoveSecond() {
+        return wolfLastMoveSecond;
+    }
+
+    public void setWolfLastMoveSecond(int wolfLastMoveSecond) {
+        this.wolfLastMoveSecond = wolfLastMoveSecond;
+    }
+    /**
+     * @return 
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public void setGameOver(boolean gameOver) {
+        this.gameOver = gameOver;
+    }
+}
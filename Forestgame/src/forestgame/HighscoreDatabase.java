@@ -1,118 +1,400 @@
-package forestgame;
-
-import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
-
-/**
- * SQLite-based highscore storage.
- *
- * DB file: forest_escape.db
- * Table : highscores
- */
-public class HighscoreDatabase {
-
-    private static final String DB_URL = "jdbc:sqlite:forest_escape.db";
-
-    static {
-        try {
-             Class.forName("org.sqlite.JDBC");
-        } catch (ClassNotFoundException e) {
-            System.err.println("SQLite JDBC driver not found: " + e.getMessage());
-        }
-        initDatabase();
-    }
-
-    private static void initDatabase() {
-        String sql = """
-                CREATE TABLE IF NOT EXISTS highscores (
-                    id           INTEGER PRIMARY KEY AUTOINCREMENT,
-                    player_name  TEXT NOT NULL,
-                    level_name   TEXT NOT NULL,
-                    mushrooms    INTEGER NOT NULL,
-                    time_seconds INTEGER NOT NULL,
-                    created_at   TEXT DEFAULT CURRENT_TIMESTAMP
-                );
-                """;
-
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-        } catch (SQLException e) {
-            System.err.println("Failed to init highscores table: " + e.getMessage());
-        }
-    }
-
-    /**
-     * Save one score row into DB.
-     */
-    public static void saveScore(String playerName,
-                                 String levelName,
-                                 int mushrooms,
-                                 int timeSeconds) {
-
-        String sql = """
-                INSERT INTO highscores (player_name, level_name, mushrooms, time_seconds)
-                VALUES (?, ?, ?, ?)
-                """;
-
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setString(1, playerName);
-            ps.setString(2, levelName);
-            ps.setInt(3, mushrooms);
-            ps.setInt(4, timeSeconds);
-            ps.executeUpdate();
-
-        } catch (SQLException e) {
-            System.err.println("Failed to save highscore: " + e.getMessage());
-        }
-    }
-
-    /**
-     * Load top N scores for a specific level.
-     * Ordered by:
-     *   1) mushrooms DESC
-     *   2) time_seconds ASC
-     */
-    public static List<HighscoreEntry> loadTopScores(String levelName, int limit) {
-
-        List<HighscoreEntry> result = new ArrayList<>();
-
-        String sql = """
-                SELECT player_name, level_name, mushrooms, time_seconds, created_at
-                FROM highscores
-                WHERE level_name = ?
-                ORDER BY mushrooms DESC, time_seconds ASC
-                LIMIT ?
-                """;
-
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setString(1, levelName);
-            ps.setInt(2, limit);
-
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    String playerName = rs.getString("player_name");
-                    String lvlName    = rs.getString("level_name");
-                    int mushrooms     = rs.getInt("mushrooms");
-                    int timeSeconds   = rs.getInt("time_seconds");
-                    String createdAt  = rs.getString("created_at");
-
-                    result.add(new HighscoreEntry(
-                            playerName, lvlName, mushrooms, timeSeconds, createdAt
-                    ));
-                }
-            }
-
-        } catch (SQLException e) {
-            System.err.println("Failed to load highscores: " + e.getMessage());
-        }
-
-        return result;
-    }
-}
+package forestgame;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQLite-based highscore storage.
+ *
+ * DB file: forest_escape.db
+ * Table : highscores
+ *
+ * Call {@link #init()} once at startup on a background thread (it blocks
+ * on the disk); the writer thread and the methods that read the DB call it
+ * on first use as well. Scores are written by a background HighscoreWriter,
+ * so saving never blocks the caller on the disk or on init(). Call
+ * {@link #shutdown()} before exiting.
+ *
+ * The DB runs in WAL mode with one long-lived connection for writes and
+ * one for reads, so a leaderboard query does not wait for a batch commit.
+ * Each connection keeps its prepared statements, and the top-N query is
+ * answered from an index on (level_name, mushrooms DESC, time_seconds ASC).
+ *
+ * The leaderboard dialog reads {@link #getTopScores} from an in-memory
+ * Leaderboard that gets every score as soon as it is saved and that init()
+ * fills with the scores already in the DB. It never touches the disk or
+ * waits for init(); until the DB is loaded it shows only this run's scores.
+ */
+public class HighscoreDatabase {
+
+    private static final String DB_URL = "jdbc:sqlite:forest_escape.db";
+
+    private static final long FLUSH_TIMEOUT_MS = 2000;
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO highscores (player_name, level_name, mushrooms, time_seconds, seed, created_at)
+            VALUES (?, ?, ?, ?, ?, COALESCE(?, CURRENT_TIMESTAMP))
+            """;
+
+    private static final String TOP_SCORES_SQL = """
+            SELECT player_name, level_name, mushrooms, time_seconds, created_at, seed
+            FROM highscores
+            WHERE level_name = ?
+            ORDER BY mushrooms DESC, time_seconds ASC, id ASC
+            LIMIT ?
+            """;
+
+    private static final String LEVEL_NAMES_SQL = "SELECT DISTINCT level_name FROM highscores";
+
+    // same text as SQLite's CURRENT_TIMESTAMP
+    private static final DateTimeFormatter CREATED_AT_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // applied to every connection; journal_mode=WAL also persists in the file
+    private static final String[] PRAGMAS = {
+            "PRAGMA journal_mode=WAL",
+            "PRAGMA synchronous=NORMAL",      // durable across crashes in WAL mode, no fsync per commit
+            "PRAGMA busy_timeout=5000",
+            "PRAGMA temp_store=MEMORY",
+            "PRAGMA cache_size=-8000"         // 8 MB page cache
+    };
+
+    /**
+     * One long-lived connection and its prepared statements. Callers
+     * synchronize on the store while they use a statement.
+     */
+    private static final class Store {
+        private Connection conn;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        synchronized Connection connection() throws SQLException {
+            if (conn == null || conn.isClosed()) {
+                statements.clear();
+                conn = DriverManager.getConnection(DB_URL);
+                try (Statement stmt = conn.createStatement()) {
+                    for (String pragma : PRAGMAS) {
+                        stmt.execute(pragma);
+                    }
+                }
+            }
+            return conn;
+        }
+
+        synchronized PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement ps = statements.get(sql);
+            if (ps == null) {
+                ps = connection().prepareStatement(sql);
+                statements.put(sql, ps);
+            }
+            return ps;
+        }
+
+        /**
+         * Closes the connection; the next use opens a new one.
+         */
+        synchronized void close() {
+            statements.clear();
+            if (conn != null) {
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    System.err.println("Failed to close highscore DB: " + e.getMessage());
+                }
+                conn = null;
+            }
+        }
+    }
+
+    private static final Store WRITE_STORE = new Store();
+    private static final Store READ_STORE = new Store();
+
+    private static final Leaderboard LEADERBOARD = new Leaderboard(Leaderboard.DEFAULT_CAPACITY);
+
+    // insertBatch() calls init(), so the writer thread opens the DB itself
+    private static final HighscoreWriter WRITER =
+            new HighscoreWriter(HighscoreWriter.DEFAULT_CAPACITY, HighscoreDatabase::insertBatch);
+
+    private static volatile boolean initialized;
+
+    /**
+     * Loads the JDBC driver, creates the table and index and loads the
+     * leaderboard. Does nothing after the first call.
+     */
+    public static void init() {
+        if (initialized)
+            return;
+
+        synchronized (HighscoreDatabase.class) {
+            if (initialized)
+                return;
+
+            try {
+                 Class.forName("org.sqlite.JDBC");
+            } catch (ClassNotFoundException e) {
+                System.err.println("SQLite JDBC driver not found: " + e.getMessage());
+            }
+            initDatabase();
+            warmLeaderboard();
+            initialized = true;
+        }
+    }
+
+    private static void initDatabase() {
+        String sql = """
+                CREATE TABLE IF NOT EXISTS highscores (
+                    id           INTEGER PRIMARY KEY AUTOINCREMENT,
+                    player_name  TEXT NOT NULL,
+                    level_name   TEXT NOT NULL,
+                    mushrooms    INTEGER NOT NULL,
+                    time_seconds INTEGER NOT NULL,
+                    created_at   TEXT DEFAULT CURRENT_TIMESTAMP,
+                    seed         INTEGER
+                );
+                """;
+
+        synchronized (WRITE_STORE) {
+            try (Statement stmt = WRITE_STORE.connection().createStatement()) {
+                stmt.execute(sql);
+
+                // databases created before seeds were recorded lack the column
+                boolean hasSeed = false;
+                try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(highscores)")) {
+                    while (rs.next()) {
+                        if ("seed".equals(rs.getString("name"))) {
+                            hasSeed = true;
+                        }
+                    }
+                }
+                if (!hasSeed) {
+                    stmt.execute("ALTER TABLE highscores ADD COLUMN seed INTEGER");
+                }
+
+                // serves the top-N query without sorting the level's rows
+                stmt.execute("""
+                        CREATE INDEX IF NOT EXISTS idx_highscores_level_rank
+                        ON highscores (level_name, mushrooms DESC, time_seconds ASC)
+                        """);
+            } catch (SQLException e) {
+                System.err.println("Failed to init highscores table: " + e.getMessage());
+                WRITE_STORE.close();
+            }
+        }
+    }
+
+    /**
+     * Loads each level's best scores into the in-memory leaderboard. They
+     * rank before equal scores saved in this run, which are not in the DB
+     * yet because every insert waits for init().
+     */
+    private static void warmLeaderboard() {
+        List<String> levelNames = new ArrayList<>();
+        synchronized (READ_STORE) {
+            try (Statement stmt = READ_STORE.connection().createStatement();
+                 ResultSet rs = stmt.executeQuery(LEVEL_NAMES_SQL)) {
+                while (rs.next()) {
+                    levelNames.add(rs.getString("level_name"));
+                }
+            } catch (SQLException e) {
+                System.err.println("Failed to load highscores: " + e.getMessage());
+                READ_STORE.close();
+            }
+        }
+
+        List<HighscoreEntry> stored = new ArrayList<>();
+        for (String levelName : levelNames) {
+            stored.addAll(queryTopScores(levelName, LEADERBOARD.getCapacity()));
+        }
+        LEADERBOARD.addOlder(stored);
+    }
+
+    /**
+     * Save one score row into DB (without a seed).
+     */
+    public static void saveScore(String playerName,
+                                 String levelName,
+                                 int mushrooms,
+                                 int timeSeconds) {
+        saveScore(playerName, levelName, mushrooms, timeSeconds, null);
+    }
+
+    /**
+     * Queue one score row for the DB together with the session's random
+     * seed, so the run can be reproduced. Returns immediately; the row is
+     * written by the background writer. If its queue is full the score is
+     * dropped and counted rather than written on the caller's thread; after
+     * shutdown() it is written right here. The leaderboard shows the score
+     * right away.
+     */
+    public static void saveScore(String playerName,
+                                 String levelName,
+                                 int mushrooms,
+                                 int timeSeconds,
+                                 Long seed) {
+
+        String createdAt = LocalDateTime.now(ZoneOffset.UTC).format(CREATED_AT_FORMAT);
+        HighscoreEntry entry = new HighscoreEntry(
+                playerName, levelName, mushrooms, timeSeconds, createdAt, seed);
+
+        if (WRITER.submit(entry)) {
+            LEADERBOARD.add(entry);
+            return;
+        }
+
+        if (WRITER.isRunning()) {
+            System.err.println("Highscore queue full, dropped score of " + playerName
+                    + " (" + WRITER.getRejectedCount() + " dropped so far)");
+        } else {
+            try {
+                insertBatch(List.of(entry));
+                LEADERBOARD.add(entry);
+            } catch (SQLException e) {
+                System.err.println("Failed to save highscore: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Insert rows in a single transaction.
+     */
+    static void insertBatch(List<HighscoreEntry> batch) throws SQLException {
+        init();
+
+        synchronized (WRITE_STORE) {
+            try {
+                PreparedStatement ps = WRITE_STORE.prepare(INSERT_SQL);
+                Connection conn = WRITE_STORE.connection();
+
+                conn.setAutoCommit(false);
+                try {
+                    for (HighscoreEntry e : batch) {
+                        ps.setString(1, e.getPlayerName());
+                        ps.setString(2, e.getLevelName());
+                        ps.setInt(3, e.getMushrooms());
+                        ps.setInt(4, e.getTimeSeconds());
+                        if (e.getSeed() != null) {
+                            ps.setLong(5, e.getSeed());
+                        } else {
+                            ps.setNull(5, Types.INTEGER);
+                        }
+                        ps.setString(6, e.getCreatedAt());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    conn.commit();
+                } catch (SQLException e) {
+                    ps.clearBatch();
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                // start over with a fresh connection next time
+                WRITE_STORE.close();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Waits until every score saved so far is in the DB.
+     *
+     * @return false if that did not happen within the timeout
+     */
+    public static boolean flush() {
+        return WRITER.flush(FLUSH_TIMEOUT_MS);
+    }
+
+    /**
+     * Writes the scores still queued, stops the background writer and
+     * closes the connections. Scores saved afterwards are written
+     * synchronously on a new connection.
+     */
+    public static void shutdown() {
+        if (!WRITER.shutdown(SHUTDOWN_TIMEOUT_MS))
+            System.err.println("Highscores still queued at shutdown: " + WRITER.getQueueDepth());
+        WRITE_STORE.close();
+        READ_STORE.close();
+    }
+
+    /**
+     * @return the background writer, for its queue and latency metrics
+     */
+    public static HighscoreWriter getWriter() {
+        return WRITER;
+    }
+
+    /**
+     * @return the in-memory leaderboard behind {@link #getTopScores}
+     */
+    public static Leaderboard getLeaderboard() {
+        return LEADERBOARD;
+    }
+
+    /**
+     * Top N scores for a level from the in-memory leaderboard, in the same
+     * order as {@link #loadTopScores}. Never reads the DB or waits for
+     * init(), so it is safe on the EDT; at most Leaderboard.DEFAULT_CAPACITY
+     * entries are returned (use loadTopScores for more).
+     */
+    public static List<HighscoreEntry> getTopScores(String levelName, int limit) {
+        return LEADERBOARD.getTopScores(levelName, limit);
+    }
+
+    /**
+     * Load top N scores for a specific level.
+     * Ordered by:
+     *   1) mushrooms DESC
+     *   2) time_seconds ASC
+     * Scores still queued for writing are flushed first, so this may
+     * block; keep it off the EDT.
+     */
+    public static List<HighscoreEntry> loadTopScores(String levelName, int limit) {
+        init();
+        flush();
+        return queryTopScores(levelName, limit);
+    }
+
+    private static List<HighscoreEntry> queryTopScores(String levelName, int limit) {
+
+        List<HighscoreEntry> result = new ArrayList<>();
+
+        synchronized (READ_STORE) {
+            try {
+                PreparedStatement ps = READ_STORE.prepare(TOP_SCORES_SQL);
+                ps.setString(1, levelName);
+                ps.setInt(2, limit);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        String playerName = rs.getString("player_name");
+                        String lvlName    = rs.getString("level_name");
+                        int mushrooms     = rs.getInt("mushrooms");
+                        int timeSeconds   = rs.getInt("time_seconds");
+                        String createdAt  = rs.getString("created_at");
+                        long seed         = rs.getLong("seed");
+                        Long seedOrNull   = rs.wasNull() ? null : seed;
+
+                        result.add(new HighscoreEntry(
+                                playerName, lvlName, mushrooms, timeSeconds, createdAt, seedOrNull
+                        ));
+                    }
+                }
+
+            } catch (SQLException e) {
+                System.err.println("Failed to load highscores: " + e.getMessage());
+                READ_STORE.close();
+            }
+        }
+
+        return result;
+    }
+}
  
\ No newline at end of file
@@ -1,45 +1,63 @@
-package forestgame;
-
-/**
- * Represents one highscore row from the database.
- */
-public class HighscoreEntry {
-
-    private final String playerName;
-    private final String levelName;
-    private final int mushrooms;
-    private final int timeSeconds;
-    private final String createdAt;  
-
-    public HighscoreEntry(String playerName,
-                          String levelName,
-                          int mushrooms,
-                          int timeSeconds,
-                          String createdAt) {
-        this.playerName = playerName;
-        this.levelName = levelName;
-        this.mushrooms = mushrooms;
-        this.timeSeconds = timeSeconds;
-        this.createdAt = createdAt;
-    }
-
-    public String getPlayerName() {
-        return playerName;
-    }
-
-    public String getLevelName() {
-        return levelName;
-    }
-
-    public int getMushrooms() {
-        return mushrooms;
-    }
-
-    public int getTimeSeconds() {
-        return timeSeconds;
-    }
-
-    public String getCreatedAt() {
-        return createdAt;
-    }
-}
+package forestgame;
+
+/**
+ * Represents one highscore row from the database.
+ */
+public class HighscoreEntry {
+
+    private final String playerName;
+    private final String levelName;
+    private final int mushrooms;
+    private final int timeSeconds;
+    private final String createdAt;  
+    private final Long seed;        // null for scores saved before seeds were recorded
+
+    public HighscoreEntry(String playerName,
+                          String levelName,
+                          int mushrooms,
+                          int timeSeconds,
+                          String createdAt) {
+        this(playerName, levelName, mushrooms, timeSeconds, createdAt, null);
+    }
+
+    public HighscoreEntry(String playerName,
+                          String levelName,
+                          int mushrooms,
+                          int timeSeconds,
+                          String createdAt,
+                          Long seed) {
+        this.playerName = playerName;
+        this.levelName = levelName;
+        this.mushrooms = mushrooms;
+        this.timeSeconds = timeSeconds;
+        this.createdAt = createdAt;
+        this.seed = seed;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public String getLevelName() {
+        return levelName;
+    }
+
+    public int getMushrooms() {
+        return mushrooms;
+    }
+
+    public int getTimeSeconds() {
+        return timeSeconds;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * @return random seed of the session, or null if unknown
+     */
+    public Long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,244 @@
+package forestgame;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Single background thread that writes queued highscores in batches.
+ *
+ * Callers (GamePanel on the EDT) only put the score into a bounded queue.
+ * The writer takes whatever has queued up, at most MAX_BATCH rows, and
+ * hands it to the sink as one batch (one transaction). Queue depth, batch
+ * count and enqueue-to-commit latency are kept as metrics.
+ *
+ * submit never waits: a score that does not fit into a full queue is
+ * rejected right away and counted (getRejectedCount()), so a stalled disk
+ * cannot block the EDT.
+ */
+public class HighscoreWriter {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int MAX_BATCH = 256;
+
+    /**
+     * Destination of the batches.
+     */
+    public interface Sink {
+        /**
+         * Stores all rows in one transaction.
+         *
+         * @param batch
+         * @throws SQLException
+         */
+        void write(List<HighscoreEntry> batch) throws SQLException;
+    }
+
+    private static final class Pending {
+        final HighscoreEntry entry;
+        final long enqueuedAt;
+
+        Pending(HighscoreEntry entry, long enqueuedAt) {
+            this.entry = entry;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    private final BlockingQueue<Pending> queue;
+    private final Sink sink;
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    // held while a score is checked and queued, so shutdown cannot slip in
+    // between and leave a score behind the exiting writer thread
+    private final Object submitLock = new Object();
+
+    // guarded by this
+    private long submitted;
+    private long completed;     // written, failed or rejected
+    private long written;
+    private long failed;
+    private long rejected;
+    private long batches;
+    private long totalLatencyNanos;
+    private long maxLatencyNanos;
+    private int maxQueueDepth;
+
+    /**
+     * Starts the writer thread.
+     *
+     * @param capacity most scores waiting to be written
+     * @param sink
+     */
+    public HighscoreWriter(int capacity, Sink sink) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.sink = sink;
+        this.thread = new Thread(this::run, "highscore-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues a score for writing without waiting.
+     *
+     * @param entry
+     * @return false if the score was not queued (full queue or shut down)
+     */
+    public boolean submit(HighscoreEntry entry) {
+        synchronized (submitLock) {
+            if (!running)
+                return false;
+
+            synchronized (this) {
+                submitted++;
+            }
+            boolean queued = queue.offer(new Pending(entry, System.nanoTime()));
+
+            synchronized (this) {
+                if (queued) {
+                    maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+                } else {
+                    rejected++;
+                    completed++;
+                    notifyAll();
+                }
+            }
+            return queued;
+        }
+    }
+
+    /**
+     * Waits until every score submitted so far has been written.
+     *
+     * @param timeoutMs
+     * @return false if the timeout expired first
+     */
+    public synchronized boolean flush(long timeoutMs) {
+        long target = submitted;
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (completed < target) {
+            long left = deadline - System.currentTimeMillis();
+            if (left <= 0)
+                return false;
+            try {
+                wait(left);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting scores, writes everything still queued and stops the
+     * thread. Waits for a submit in progress to finish queueing first.
+     *
+     * @param timeoutMs
+     * @return false if the queue could not be drained in time
+     */
+    public boolean shutdown(long timeoutMs) {
+        synchronized (submitLock) {
+            running = false;
+        }
+        boolean drained = flush(timeoutMs);
+        thread.interrupt();
+        return drained;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        List<Pending> pending = new ArrayList<>(MAX_BATCH);
+        List<HighscoreEntry> batch = new ArrayList<>(MAX_BATCH);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                pending.add(queue.take());
+            } catch (InterruptedException e) {
+                if (queue.isEmpty())
+                    break;
+                continue;
+            }
+            queue.drainTo(pending, MAX_BATCH - 1);
+
+            for (Pending p : pending) {
+                batch.add(p.entry);
+            }
+
+            boolean ok = true;
+            try {
+                sink.write(batch);
+            } catch (SQLException | RuntimeException e) {
+                ok = false;
+                System.err.println("Failed to save " + batch.size() + " highscores: " + e.getMessage());
+            }
+
+            long now = System.nanoTime();
+            synchronized (this) {
+                for (Pending p : pending) {
+                    long latency = now - p.enqueuedAt;
+                    totalLatencyNanos += latency;
+                    maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+                }
+                if (ok)
+                    written += batch.size();
+                else
+                    failed += batch.size();
+                batches++;
+                completed += batch.size();
+                notifyAll();
+            }
+
+            pending.clear();
+            batch.clear();
+        }
+    }
+
+    /**
+     * @return scores waiting in the queue right now
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public synchronized int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    public synchronized long getWrittenCount() {
+        return written;
+    }
+
+    public synchronized long getFailedCount() {
+        return failed;
+    }
+
+    /**
+     * @return scores dropped because the queue was full
+     */
+    public synchronized long getRejectedCount() {
+        return rejected;
+    }
+
+    public synchronized long getBatchCount() {
+        return batches;
+    }
+
+    /**
+     * @return average time from submit to the end of its batch, in milliseconds
+     */
+    public synchronized double getAverageLatencyMillis() {
+        long n = written + failed;
+        return n == 0 ? 0 : totalLatencyNanos / 1e6 / n;
+    }
+
+    public synchronized double getMaxLatencyMillis() {
+        return maxLatencyNanos / 1e6;
+    }
+}
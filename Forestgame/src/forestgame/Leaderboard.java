@@ -0,0 +1,119 @@
+package forestgame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory top scores per level, kept in the same order as the
+ * highscores query: mushrooms descending, then time ascending, then the
+ * order the scores were added.
+ *
+ * Each level holds at most {@code capacity} entries in a sorted list; a
+ * new score is placed by binary search and the last entry falls off when
+ * the list is full. HighscoreDatabase adds every score as it is saved and
+ * loads the older ones from the DB at startup, so the leaderboard dialog
+ * never reads the disk.
+ */
+public class Leaderboard {
+
+    public static final int DEFAULT_CAPACITY = 100;
+
+    public static final Comparator<HighscoreEntry> ORDER =
+            Comparator.comparingInt(HighscoreEntry::getMushrooms).reversed()
+                    .thenComparingInt(HighscoreEntry::getTimeSeconds);
+
+    private final int capacity;
+    private final Map<String, List<HighscoreEntry>> levels = new HashMap<>();
+
+    /**
+     * @param capacity most entries kept per level
+     */
+    public Leaderboard(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Adds a score to its level's list if it ranks among the top entries.
+     *
+     * @param entry
+     * @return true if the score made it into the list
+     */
+    public synchronized boolean add(HighscoreEntry entry) {
+        List<HighscoreEntry> top = levels.computeIfAbsent(entry.getLevelName(), k -> new ArrayList<>());
+
+        // after every equal entry, so ties keep the order they were saved in
+        int index = upperBound(top, entry);
+        if (index >= capacity)
+            return false;
+
+        top.add(index, entry);
+        if (top.size() > capacity)
+            top.remove(top.size() - 1);
+        return true;
+    }
+
+    /**
+     * Adds several scores; equal ones rank in the order given.
+     *
+     * @param entries
+     */
+    public synchronized void addAll(List<HighscoreEntry> entries) {
+        for (HighscoreEntry e : entries) {
+            add(e);
+        }
+    }
+
+    /**
+     * Adds scores saved before every score already in the leaderboard, so
+     * they rank first among equal scores.
+     *
+     * @param entries in the order they were saved
+     */
+    public synchronized void addOlder(List<HighscoreEntry> entries) {
+        Map<String, List<HighscoreEntry>> newer = new HashMap<>(levels);
+        levels.clear();
+        addAll(entries);
+        for (List<HighscoreEntry> top : newer.values()) {
+            addAll(top);
+        }
+    }
+
+    /**
+     * @param levelName
+     * @param limit     at most this many entries (capped at the capacity)
+     * @return best scores of the level, best first; a copy
+     */
+    public synchronized List<HighscoreEntry> getTopScores(String levelName, int limit) {
+        List<HighscoreEntry> top = levels.get(levelName);
+        if (top == null)
+            return Collections.emptyList();
+        return new ArrayList<>(top.subList(0, Math.min(Math.max(limit, 0), top.size())));
+    }
+
+    public synchronized void clear() {
+        levels.clear();
+    }
+
+    private static int upperBound(List<HighscoreEntry> top, HighscoreEntry entry) {
+        int lo = 0;
+        int hi = top.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ORDER.compare(top.get(mid), entry) <= 0)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+}
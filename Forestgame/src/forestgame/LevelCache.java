@@ -0,0 +1,86 @@
+package forestgame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide cache of parsed levels, keyed by file path.
+ *
+ * An entry is reloaded when the file's modification time changes, and the
+ * least recently used entry is evicted once MAX_ENTRIES is exceeded.
+ * Parsing happens outside the lock, so several threads can load different
+ * levels at the same time.
+ */
+public class LevelCache {
+
+    private static final int MAX_ENTRIES = 64;
+
+    private static final Map<String, Entry> CACHE =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            };
+
+    private static final class Entry {
+        final LevelTemplate template;
+        final FileTime modified;
+
+        Entry(LevelTemplate template, FileTime modified) {
+            this.template = template;
+            this.modified = modified;
+        }
+    }
+
+    private LevelCache() {
+    }
+
+    /**
+     * Returns the template for the level file, parsing it if it is not
+     * cached yet or has changed on disk since it was cached.
+     *
+     * @param path
+     * @return
+     * @throws IOException 
+     */
+    public static LevelTemplate getTemplate(String path) throws IOException {
+        Path file = Paths.get(path);
+        String key = file.toAbsolutePath().normalize().toString();
+        FileTime modified = Files.getLastModifiedTime(file);
+
+        synchronized (CACHE) {
+            Entry e = CACHE.get(key);
+            if (e != null && e.modified.equals(modified)) {
+                return e.template;
+            }
+        }
+
+        LevelTemplate template = new LevelTemplate(LevelLoader.loadFromFile(path));
+
+        synchronized (CACHE) {
+            CACHE.put(key, new Entry(template, modified));
+        }
+        return template;
+    }
+
+    /**
+     * @param path
+     * @return a fresh mutable copy of the cached level
+     * @throws IOException 
+     */
+    public static LoadedLevel load(String path) throws IOException {
+        return getTemplate(path).newLevel();
+    }
+
+    public static void clear() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package forestgame;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Converts text levels into the compact binary format read by
+ * LevelLoader.loadFromBinary.
+ *
+ * Usage: java forestgame.LevelConverter &lt;level.txt | levelsDir&gt;...
+ * Each level.txt is written next to the source as level.fel.
+ */
+public class LevelConverter {
+
+    /**
+     * Writes the initial state of a loaded level in binary form.
+     *
+     * @param level freshly loaded level (before any moves)
+     * @param out
+     * @throws IOException
+     */
+    public static void write(LoadedLevel level, OutputStream out) throws IOException {
+        GameMap map = level.getMap();
+        Player player = level.getPlayer();
+        List<Wolf> wolves = level.getWolves();
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(LevelLoader.BINARY_MAGIC);
+        data.writeShort(LevelLoader.BINARY_VERSION);
+
+        data.writeInt(map.getRows());
+        data.writeInt(map.getCols());
+        data.writeInt(player.getRow());
+        data.writeInt(player.getCol());
+        data.writeInt(map.getCampfireRow());
+        data.writeInt(map.getCampfireCol());
+
+        data.writeInt(wolves.size());
+        for (Wolf w : wolves) {
+            data.writeInt(w.getRow());
+            data.writeInt(w.getCol());
+        }
+
+        // run-length encoded tiles, row-major
+        int cols = map.getCols();
+        int total = map.getRows() * cols;
+        int pos = 0;
+        while (pos < total) {
+            TileType tile = map.getTile(pos / cols, pos % cols);
+            int run = 1;
+            while (pos + run < total && map.getTile((pos + run) / cols, (pos + run) % cols) == tile) {
+                run++;
+            }
+            data.writeByte(tile.ordinal());
+            writeVarInt(data, run);
+            pos += run;
+        }
+        data.flush();
+    }
+
+    private static void writeVarInt(DataOutputStream data, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            data.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data.writeByte(value);
+    }
+
+    /**
+     * Converts one text level and returns the path of the binary file.
+     *
+     * @param textPath
+     * @return
+     * @throws IOException
+     */
+    public static Path convert(Path textPath) throws IOException {
+        LoadedLevel level = LevelLoader.loadFromFile(textPath.toString());
+
+        String name = textPath.getFileName().toString();
+        int dotIndex = name.lastIndexOf('.');
+        String base = (dotIndex > 0) ? name.substring(0, dotIndex) : name;
+        Path target = textPath.resolveSibling(base + LevelLoader.BINARY_EXTENSION);
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+            write(level, out);
+        }
+        return target;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: java forestgame.LevelConverter <level.txt | levelsDir>...");
+            return;
+        }
+
+        for (String arg : args) {
+            Path path = Paths.get(arg);
+            List<Path> sources;
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> files = Files.list(path)) {
+                    sources = files
+                            .filter(f -> f.getFileName().toString().endsWith(".txt"))
+                            .sorted()
+                            .collect(Collectors.toList());
+                }
+            } else {
+                sources = List.of(path);
+            }
+
+            for (Path source : sources) {
+                Path target = convert(source);
+                System.out.println(source + " -> " + target
+                        + " (" + Files.size(source) + " -> " + Files.size(target) + " bytes)");
+            }
+        }
+    }
+}
@@ -1,135 +1,289 @@
-package forestgame;
-
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.List;
-
-public class LevelLoader {
-
-    private static final int ROWS = 20;
-    private static final int COLS = 20;
-    /**
-     * @param path
-     * @return
-     * @throws IOException 
-     */
-    public static LoadedLevel loadFromFile(String path) throws IOException {
-
-        List<String> lines = Files.readAllLines(Paths.get(path));
-        if (lines.size() != ROWS) {
-            throw new IOException("Level must have exactly " + ROWS + " lines.");
-        }
-
-        TileType[][] tiles = new TileType[ROWS][COLS];
-
-        int playerRow = -1;
-        int playerCol = -1;
-        int campfireRow = -1;
-        int campfireCol = -1;
-
-        List<Wolf> wolves = new ArrayList<>();
-
-        for (int r = 0; r < ROWS; r++) {
-            String line = lines.get(r);
-
-            if (line.length() != COLS) {
-                throw new IOException("Line " + (r + 1) + " must have length " + COLS);
-            }
-
-            for (int c = 0; c < COLS; c++) {
-                char ch = line.charAt(c);
-                TileType tile;
-
-                switch (ch) {
-                    case '#':
-                    case 'T':
-                        tile = TileType.TREE;
-                        break;
-
-                    case 'R':
-                        tile = TileType.ROCK;
-                        break;
-
-                    case 'B':
-                        tile = TileType.BUSH;
-                        break;
-
-                    case 'M':
-                        tile = TileType.MUSHROOM;
-                        break;
-
-                    case 'C':
-                        tile = TileType.CAMPFIRE;
-                        campfireRow = r;
-                        campfireCol = c;
-                        break;
-
-                    case 'S':
-                        tile = TileType.SPEED_POWERUP;
-                        break;
-
-                    case 'I':
-                        tile = TileType.INVIS_POWERUP;
-                        break;
-
-                    case 'L':
-                        tile = TileType.EXTRA_LIFE;
-                        break;
-
-                    case 'P':
-                        tile = TileType.GROUND;
-                        playerRow = r;
-                        playerCol = c;
-                        break;
-
-                    case 'W':
-                        tile = TileType.GROUND;
-                        wolves.add(new Wolf(r, c)); // multi-wolf
-                        break;
-
-                    case '.':
-                    default:
-                        tile = TileType.GROUND;
-                        break;
-                }
-
-                tiles[r][c] = tile;
-            }
-        }
-
-        if (playerRow < 0 || playerCol < 0)
-            throw new IOException("Level missing player 'P'");
-
-        if (campfireRow < 0 || campfireCol < 0)
-            throw new IOException("Level missing campfire 'C'");
-
-        if (wolves.isEmpty()) {
-            wolves.add(new Wolf(campfireRow, Math.min(campfireCol + 1, COLS - 2)));
-        }
-
-        GameMap map = new GameMap(tiles, campfireRow, campfireCol);
-        Player player = new Player(playerRow, playerCol);
-
-        String levelName = extractLevelName(path);
-
-        return new LoadedLevel(map, player, wolves, levelName);
-    }
-
-    /**
-     * Convert file name like "level1.txt" to display name "Level 1".
-     */
-    private static String extractLevelName(String path) {
-        String file = Paths.get(path).getFileName().toString();  
-        int dotIndex = file.indexOf('.');
-        String base = (dotIndex > 0) ? file.substring(0, dotIndex) : file;
-
-        String lower = base.toLowerCase();
-        if (lower.startsWith("level")) {
-            String numberPart = base.substring(5); 
-            return "Level " + numberPart;
-        }
-        return base;
-    }
-}
+package forestgame;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class LevelLoader {
+
+    /** File extension of the binary level format written by LevelConverter. */
+    public static final String BINARY_EXTENSION = ".fel";
+
+    static final int BINARY_MAGIC = 0x46454C56;   // "FELV"
+    static final short BINARY_VERSION = 1;
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    // TileType ordinal for every ASCII character; unknown characters are ground
+    private static final byte[] TILE_FOR_CHAR = new byte[256];
+
+    static {
+        setTileChar('#', TileType.TREE);
+        setTileChar('T', TileType.TREE);
+        setTileChar('R', TileType.ROCK);
+        setTileChar('B', TileType.BUSH);
+        setTileChar('M', TileType.MUSHROOM);
+        setTileChar('C', TileType.CAMPFIRE);
+        setTileChar('S', TileType.SPEED_POWERUP);
+        setTileChar('I', TileType.INVIS_POWERUP);
+        setTileChar('L', TileType.EXTRA_LIFE);
+        // 'P' (player) and 'W' (wolf) stand on ground
+    }
+
+    private static void setTileChar(char ch, TileType tile) {
+        TILE_FOR_CHAR[ch] = (byte) tile.ordinal();
+    }
+
+    /**
+     * Loads a rectangular level of any size. The first line fixes the
+     * number of columns; every other line must have the same length.
+     *
+     * The file is streamed through a fixed-size buffer and decoded straight
+     * into the map's tile array in one pass, without building line strings.
+     * Files ending in {@link #BINARY_EXTENSION} are read as binary levels.
+     *
+     * @param path
+     * @return
+     * @throws IOException 
+     */
+    public static LoadedLevel loadFromFile(String path) throws IOException {
+
+        if (path.endsWith(BINARY_EXTENSION)) {
+            return loadFromBinary(path);
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Level file is too large: " + size + " bytes");
+            }
+
+            // rows * cols never exceeds the file size, so the tiles fit in place
+            byte[] tiles = new byte[(int) size];
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+            int rows = 0;
+            int cols = -1;
+            int col = 0;
+            int blankLines = 0;
+            int written = 0;
+
+            int playerRow = -1;
+            int playerCol = -1;
+            int campfireRow = -1;
+            int campfireCol = -1;
+
+            List<Wolf> wolves = new ArrayList<>();
+
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                byte[] data = buffer.array();
+                int limit = buffer.limit();
+
+                for (int i = 0; i < limit; i++) {
+                    byte ch = data[i];
+
+                    if (ch == '\r') {
+                        continue;
+                    }
+
+                    if (ch == '\n') {
+                        if (col == 0) {
+                            blankLines++;       // only allowed at the end of the file
+                            continue;
+                        }
+                        if (cols < 0) {
+                            cols = col;
+                        } else if (col != cols) {
+                            throw new IOException("Line " + (rows + 1) + ", column " + (col + 1)
+                                    + ": line must have length " + cols);
+                        }
+                        rows++;
+                        col = 0;
+                        continue;
+                    }
+
+                    if (blankLines > 0) {
+                        throw new IOException("Line " + (rows + 1) + ", column 1: empty line inside level");
+                    }
+                    if (cols >= 0 && col >= cols) {
+                        throw new IOException("Line " + (rows + 1) + ", column " + (col + 1)
+                                + ": line must have length " + cols);
+                    }
+
+                    if (ch == 'P') {
+                        playerRow = rows;
+                        playerCol = col;
+                    } else if (ch == 'W') {
+                        wolves.add(new Wolf(rows, col)); // multi-wolf
+                    } else if (ch == 'C') {
+                        campfireRow = rows;
+                        campfireCol = col;
+                    }
+
+                    tiles[written++] = TILE_FOR_CHAR[ch & 0xFF];
+                    col++;
+                }
+                buffer.clear();
+            }
+
+            // last line without a trailing newline
+            if (col > 0) {
+                if (cols >= 0 && col != cols) {
+                    throw new IOException("Line " + (rows + 1) + ", column " + (col + 1)
+                            + ": line must have length " + cols);
+                }
+                cols = col;
+                rows++;
+            }
+
+            if (rows == 0) {
+                throw new IOException("Level is empty.");
+            }
+
+            if (playerRow < 0 || playerCol < 0)
+                throw new IOException("Level missing player 'P'");
+
+            if (campfireRow < 0 || campfireCol < 0)
+                throw new IOException("Level missing campfire 'C'");
+
+            if (wolves.isEmpty()) {
+                wolves.add(new Wolf(campfireRow, Math.max(0, Math.min(campfireCol + 1, cols - 2))));
+            }
+
+            GameMap map = new GameMap(rows, cols, tiles, campfireRow, campfireCol);
+            Player player = new Player(playerRow, playerCol);
+
+            String levelName = extractLevelName(path);
+
+            return new LoadedLevel(map, player, wolves, levelName);
+        }
+    }
+
+    /**
+     * Loads a level written by LevelConverter with a single read.
+     *
+     * Layout (big-endian): magic, version, rows, cols, player row/col,
+     * campfire row/col, wolf count and wolf row/col pairs, then the tiles
+     * row-major as runs of (tile ordinal byte, varint run length).
+     *
+     * @param path
+     * @return
+     * @throws IOException 
+     */
+    public static LoadedLevel loadFromBinary(String path) throws IOException {
+
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(Paths.get(path)));
+
+        try {
+            if (in.getInt() != BINARY_MAGIC) {
+                throw new IOException("Not a binary level file: " + path);
+            }
+            short version = in.getShort();
+            if (version != BINARY_VERSION) {
+                throw new IOException("Unsupported binary level version " + version);
+            }
+
+            int rows = in.getInt();
+            int cols = in.getInt();
+            if (rows <= 0 || cols <= 0 || (long) rows * cols > Integer.MAX_VALUE) {
+                throw new IOException("Invalid level size " + rows + "x" + cols);
+            }
+
+            int playerRow = in.getInt();
+            int playerCol = in.getInt();
+            checkPosition("Player", playerRow, playerCol, rows, cols);
+            int campfireRow = in.getInt();
+            int campfireCol = in.getInt();
+            checkPosition("Campfire", campfireRow, campfireCol, rows, cols);
+
+            // every wolf takes 8 bytes, so the count cannot exceed what is left
+            int wolfCount = in.getInt();
+            if (wolfCount < 0 || wolfCount > in.remaining() / 8) {
+                throw new IOException("Invalid wolf count " + wolfCount);
+            }
+            List<Wolf> wolves = new ArrayList<>(wolfCount);
+            for (int i = 0; i < wolfCount; i++) {
+                int wolfRow = in.getInt();
+                int wolfCol = in.getInt();
+                checkPosition("Wolf " + (i + 1), wolfRow, wolfCol, rows, cols);
+                wolves.add(new Wolf(wolfRow, wolfCol));
+            }
+
+            // the runs must cover exactly rows * cols tiles before the array
+            // is allocated, so a corrupt size cannot allocate gigabytes
+            int tileCount = rows * cols;
+            int tileStart = in.position();
+            int tileTypes = TileType.values().length;
+            int pos = 0;
+            while (pos < tileCount) {
+                byte tile = in.get();
+                int run = readVarInt(in);
+                if (tile < 0 || tile >= tileTypes || run <= 0 || run > tileCount - pos) {
+                    throw new IOException("Corrupt tile data at tile " + pos);
+                }
+                pos += run;
+            }
+
+            byte[] tiles = new byte[tileCount];
+            in.position(tileStart);
+            pos = 0;
+            while (pos < tileCount) {
+                byte tile = in.get();
+                int run = readVarInt(in);
+                Arrays.fill(tiles, pos, pos + run, tile);
+                pos += run;
+            }
+
+            Player player = new Player(playerRow, playerCol);
+            GameMap map = new GameMap(rows, cols, tiles, campfireRow, campfireCol);
+            return new LoadedLevel(map, player, wolves, extractLevelName(path));
+
+        } catch (BufferUnderflowException ex) {
+            throw new IOException("Truncated binary level file: " + path, ex);
+        }
+    }
+
+    private static void checkPosition(String what, int row, int col, int rows, int cols) throws IOException {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new IOException(what + " position (" + row + ", " + col
+                    + ") is outside the " + rows + "x" + cols + " level");
+        }
+    }
+
+    private static int readVarInt(ByteBuffer in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed run length");
+    }
+
+    /**
+     * Convert file name like "level1.txt" to display name "Level 1".
+     */
+    private static String extractLevelName(String path) {
+        String file = Paths.get(path).getFileName().toString();  
+        int dotIndex = file.indexOf('.');
+        String base = (dotIndex > 0) ? file.substring(0, dotIndex) : file;
+
+        String lower = base.toLowerCase();
+        if (lower.startsWith("level")) {
+            String numberPart = base.substring(5); 
+            return "Level " + numberPart;
+        }
+        return base;
+    }
+}
@@ -0,0 +1,94 @@
+package forestgame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable, pre-parsed level. Every call to {@link #newLevel()} returns a
+ * fresh, mutable LoadedLevel built by copying the template's arrays, so a
+ * level can be restarted any number of times without touching the disk.
+ */
+public class LevelTemplate {
+
+    private final GameMap map;          // never handed out, only copied
+    private final int playerRow;
+    private final int playerCol;
+    private final int[] wolfSpawns;     // row, col pairs
+    private final String levelName;
+
+    private volatile DistanceTable distanceTable;
+    private volatile boolean distanceTableBuilt;
+    private FieldOfView fieldOfView;
+
+    /**
+     * Takes a snapshot of a freshly loaded level.
+     *
+     * @param loaded level straight from LevelLoader (before any moves)
+     */
+    public LevelTemplate(LoadedLevel loaded) {
+        this.map = new GameMap(loaded.getMap());
+        this.playerRow = loaded.getPlayer().getRow();
+        this.playerCol = loaded.getPlayer().getCol();
+        this.levelName = loaded.getLevelName();
+
+        List<Wolf> wolves = loaded.getWolves();
+        this.wolfSpawns = new int[wolves.size() * 2];
+        for (int i = 0; i < wolves.size(); i++) {
+            wolfSpawns[2 * i] = wolves.get(i).getRow();
+            wolfSpawns[2 * i + 1] = wolves.get(i).getCol();
+        }
+    }
+
+    /**
+     * @return a new mutable copy of the level in its initial state
+     */
+    public LoadedLevel newLevel() {
+        List<Wolf> wolves = new ArrayList<>(wolfSpawns.length / 2);
+        for (int i = 0; i < wolfSpawns.length; i += 2) {
+            wolves.add(new Wolf(wolfSpawns[i], wolfSpawns[i + 1]));
+        }
+        return new LoadedLevel(new GameMap(map), new Player(playerRow, playerCol), wolves, levelName, this);
+    }
+
+    /**
+     * Returns the level's precomputed distances, building them on first use.
+     * Walls never change during a level, so every session shares one table.
+     *
+     * @return the table, or null if the map is too large to precompute
+     */
+    public DistanceTable getDistanceTable() {
+        if (!distanceTableBuilt) {
+            synchronized (this) {
+                if (!distanceTableBuilt) {
+                    distanceTable = DistanceTable.build(map);
+                    distanceTableBuilt = true;
+                }
+            }
+        }
+        return distanceTable;
+    }
+
+    /**
+     * Returns the level's line-of-sight results, shared by every session so
+     * that positions seen in one game are free in the next.
+     *
+     * @return
+     */
+    public synchronized FieldOfView getFieldOfView() {
+        if (fieldOfView == null)
+            fieldOfView = new FieldOfView(map);
+        return fieldOfView;
+    }
+
+    public String getLevelName() {
+        return levelName;
+    }
+
+    public int getRows() {
+        return map.getRows();
+    }
+
+    public int getCols() {
+        return map.getCols();
+    }
+}
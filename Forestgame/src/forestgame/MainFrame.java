@@ -9,8 +9,12 @@ package forestgame;
  * @author Totu-vostro-5640
  */
 public class MainFrame extends javax.swing.JFrame {
+    private static final String LEVELS_DIR = "levels";
+
     private GamePanel gamePanel;
     private java.util.Map<String, String> levelPathMap = new java.util.HashMap<>();
+    private boolean levelChosenByUser;   // stop moving the selection to the first level
+    private boolean addingLevel;         // selection changes made by addLevel
 
 
     /**
@@ -46,32 +50,10 @@ public class MainFrame extends javax.swing.JFrame {
          levelComboBox.removeAllItems();
         levelPathMap.clear();
 
-         levelComboBox.addItem("Level 1");
-        levelComboBox.addItem("Level 2");
-        levelComboBox.addItem("Level 3");
-        levelComboBox.addItem("Level 4");
-        levelComboBox.addItem("Level 5");
-        levelComboBox.addItem("Level 6");
-        levelComboBox.addItem("Level 7");
-        levelComboBox.addItem("Level 8");
-        levelComboBox.addItem("Level 9");
-        levelComboBox.addItem("Level 10");
-
-         levelPathMap.put("Level 1",  "levels/level1.txt");
-        levelPathMap.put("Level 2",  "levels/level2.txt");
-        levelPathMap.put("Level 3",  "levels/level3.txt");
-        levelPathMap.put("Level 4",  "levels/level4.txt");
-        levelPathMap.put("Level 5",  "levels/level5.txt");
-        levelPathMap.put("Level 6",  "levels/level6.txt");
-        levelPathMap.put("Level 7",  "levels/level7.txt");
-        levelPathMap.put("Level 8",  "levels/level8.txt");
-        levelPathMap.put("Level 9",  "levels/level9.txt");
-        levelPathMap.put("Level 10", "levels/level10.txt");
-
-         String defaultName = (String) levelComboBox.getItemAt(0);
-        gamePanel.setCurrentLevelPath(levelPathMap.get(defaultName));
-
          levelComboBox.addActionListener(e -> {
+            if (!addingLevel) {
+                levelChosenByUser = true;
+            }
             String name = (String) levelComboBox.getSelectedItem();
             if (name != null) {
                 String path = levelPathMap.get(name);
@@ -94,12 +76,110 @@ public class MainFrame extends javax.swing.JFrame {
             
 
         });
+
+        preloadLevels(LEVELS_DIR);
+        preloadHighscores();
         
          this.pack();
 
 
     }
      
+    /**
+     * Lists the level files and parses them in parallel on a background
+     * executor. Each level is added to the combo box (on the EDT) as soon
+     * as it is cached, so the EDT never waits for disk or parsing.
+     */
+    private void preloadLevels(String dir) {
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        java.util.concurrent.ExecutorService executor =
+                java.util.concurrent.Executors.newFixedThreadPool(threads, r -> {
+                    Thread t = new Thread(r, "level-preloader");
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        executor.execute(() -> {
+            java.util.List<java.nio.file.Path> files;
+            try (java.util.stream.Stream<java.nio.file.Path> list =
+                         java.nio.file.Files.list(java.nio.file.Paths.get(dir))) {
+                files = list.filter(f -> f.getFileName().toString().endsWith(".txt"))
+                        .collect(java.util.stream.Collectors.toList());
+            } catch (java.io.IOException ex) {
+                System.err.println("Failed to list levels in " + dir + ": " + ex.getMessage());
+                executor.shutdown();
+                return;
+            }
+
+            for (java.nio.file.Path file : files) {
+                String path = dir + "/" + file.getFileName();
+                executor.execute(() -> {
+                    try {
+                        LevelTemplate template = LevelCache.getTemplate(path);
+                        template.getDistanceTable();     // warm the path tables too
+                        java.awt.EventQueue.invokeLater(
+                                () -> addLevel(template.getLevelName(), path));
+                    } catch (java.io.IOException ex) {
+                        System.err.println("Failed to load level " + path + ": " + ex.getMessage());
+                    }
+                });
+            }
+            executor.shutdown();
+        });
+    }
+
+    /**
+     * Opens the highscore DB and loads the leaderboard on a background
+     * thread, so opening the leaderboard never waits for the disk.
+     */
+    private void preloadHighscores() {
+        Thread t = new Thread(HighscoreDatabase::init, "highscore-preloader");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Inserts a level into the combo box, keeping levels in numeric order.
+     * Levels finish loading in any order, so until the user picks one the
+     * first level in the list stays selected.
+     */
+    private void addLevel(String name, String path) {
+        if (levelPathMap.put(name, path) != null)
+            return;
+
+        int index = 0;
+        while (index < levelComboBox.getItemCount()
+                && compareLevels(levelComboBox.getItemAt(index), name) < 0) {
+            index++;
+        }
+        addingLevel = true;
+        try {
+            levelComboBox.insertItemAt(name, index);
+            if (!levelChosenByUser) {
+                levelComboBox.setSelectedIndex(0);
+            }
+        } finally {
+            addingLevel = false;
+        }
+    }
+
+    /**
+     * Orders "Level 2" before "Level 10"; other names sort alphabetically after.
+     */
+    private static int compareLevels(String a, String b) {
+        return java.util.Comparator
+                .comparingInt(MainFrame::levelNumber)
+                .thenComparing(java.util.Comparator.naturalOrder())
+                .compare(a, b);
+    }
+
+    private static int levelNumber(String name) {
+        String digits = name.replaceAll("\\D", "");
+        if (digits.isEmpty() || digits.length() > 9)
+            return Integer.MAX_VALUE;
+        return Integer.parseInt(digits);
+    }
+     
     private void handleExitConfirmation() {
         int choice = javax.swing.JOptionPane.showConfirmDialog(
                 this,
@@ -110,6 +190,7 @@ public class MainFrame extends javax.swing.JFrame {
         );
 
         if (choice == javax.swing.JOptionPane.YES_OPTION) {
+            HighscoreDatabase.shutdown();  // write queued scores before exiting
             this.setDefaultCloseOperation(javax.swing.JFrame.DISPOSE_ON_CLOSE);
         } else {
             this.setDefaultCloseOperation(javax.swing.JFrame.DO_NOTHING_ON_CLOSE);
@@ -282,6 +363,7 @@ public class MainFrame extends javax.swing.JFrame {
         );
 
         if (choice == javax.swing.JOptionPane.YES_OPTION) {
+            HighscoreDatabase.shutdown();  // write queued scores before exiting
             this.dispose();  // close the window
         }
     }//GEN-LAST:event_menuItemExitActionPerformed
@@ -303,7 +385,7 @@ public class MainFrame extends javax.swing.JFrame {
         }
 
         java.util.List<HighscoreEntry> scores =
-                HighscoreDatabase.loadTopScores(levelName, 10);
+                HighscoreDatabase.getTopScores(levelName, 10);
 
         StringBuilder sb = new StringBuilder();
         sb.append("Leaderboard — ").append(levelName).append("\n\n");
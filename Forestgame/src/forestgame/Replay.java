@@ -0,0 +1,253 @@
+package forestgame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Recording of one played session: level, seed, wolf behavior and every
+ * player input stamped with the game second it happened in.
+ *
+ * The simulation only changes through SimulationEngine.tick() and
+ * movePlayer(), and all randomness comes from the seed, so replaying the
+ * inputs in order between the same ticks reproduces the session exactly
+ * (see ReplayRunner). The recorded result is kept as well, so a replay can
+ * be checked against the score that was saved for it.
+ *
+ * Binary layout (big-endian): magic, version, seed, level path, level name,
+ * wolf behavior, input count, inputs as (varint tick delta, input byte),
+ * then result, mushrooms and elapsed seconds.
+ */
+public class Replay {
+
+    public static final String EXTENSION = ".ferp";
+    public static final int MAGIC = 0x46455250;     // "FERP"
+    public static final int VERSION = 1;
+
+    // longest session a replay file may claim; ReplayRunner ticks that often
+    public static final int MAX_ELAPSED_SECONDS = 24 * 60 * 60;
+
+    private final String levelPath;
+    private final String levelName;
+    private final long seed;
+    private final WolfBehavior wolfBehavior;
+
+    // inputs in order; ticks are non-decreasing
+    private int[] ticks = new int[64];
+    private byte[] inputs = new byte[64];
+    private int count;
+
+    private StepResult result = StepResult.NONE;
+    private int mushrooms;
+    private int elapsedSeconds;
+
+    /**
+     * Starts an empty recording.
+     *
+     * @param levelPath    file the level was loaded from
+     * @param levelName
+     * @param seed         seed of the session (GameState.getSeed())
+     * @param wolfBehavior
+     */
+    public Replay(String levelPath, String levelName, long seed, WolfBehavior wolfBehavior) {
+        this.levelPath = levelPath;
+        this.levelName = levelName;
+        this.seed = seed;
+        this.wolfBehavior = wolfBehavior;
+    }
+
+    /**
+     * Appends one input.
+     *
+     * @param tick  elapsed game seconds when the input was applied
+     * @param input one of W, A, S, D
+     */
+    public void record(int tick, char input) {
+        if (count > 0 && tick < ticks[count - 1])
+            throw new IllegalArgumentException("Inputs must be recorded in tick order");
+
+        if (count == ticks.length) {
+            ticks = Arrays.copyOf(ticks, count * 2);
+            inputs = Arrays.copyOf(inputs, count * 2);
+        }
+        ticks[count] = tick;
+        inputs[count] = (byte) input;
+        count++;
+    }
+
+    /**
+     * Stores how the session ended.
+     *
+     * @param result         LEVEL_CLEARED, GAME_OVER, or NONE if abandoned
+     * @param mushrooms
+     * @param elapsedSeconds
+     */
+    public void finish(StepResult result, int mushrooms, int elapsedSeconds) {
+        this.result = result;
+        this.mushrooms = mushrooms;
+        this.elapsedSeconds = elapsedSeconds;
+    }
+
+    public String getLevelPath() {
+        return levelPath;
+    }
+
+    public String getLevelName() {
+        return levelName;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public WolfBehavior getWolfBehavior() {
+        return wolfBehavior;
+    }
+
+    public int getInputCount() {
+        return count;
+    }
+
+    public int getTick(int i) {
+        return ticks[i];
+    }
+
+    public char getInput(int i) {
+        return (char) inputs[i];
+    }
+
+    public StepResult getResult() {
+        return result;
+    }
+
+    public int getMushrooms() {
+        return mushrooms;
+    }
+
+    public int getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+
+    /**
+     * @return file name used when saving into a replay directory
+     */
+    public String getFileName() {
+        return levelName.replaceAll("[^A-Za-z0-9_-]", "_") + "-" + Long.toHexString(seed) + EXTENSION;
+    }
+
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeLong(seed);
+        data.writeUTF(levelPath);
+        data.writeUTF(levelName);
+        data.writeByte(wolfBehavior.ordinal());
+
+        data.writeInt(count);
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            writeVarInt(data, ticks[i] - previous);
+            data.writeByte(inputs[i]);
+            previous = ticks[i];
+        }
+
+        data.writeByte(result.ordinal());
+        data.writeInt(mushrooms);
+        data.writeInt(elapsedSeconds);
+        data.flush();
+    }
+
+    public static Replay read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC)
+            throw new IOException("Not a replay file");
+        int version = data.readUnsignedShort();
+        if (version != VERSION)
+            throw new IOException("Unsupported replay version " + version);
+
+        long seed = data.readLong();
+        String levelPath = data.readUTF();
+        String levelName = data.readUTF();
+        WolfBehavior behavior = WolfBehavior.values()[readOrdinal(data, WolfBehavior.values().length, "wolf behavior")];
+        Replay replay = new Replay(levelPath, levelName, seed, behavior);
+
+        int n = data.readInt();
+        if (n < 0)
+            throw new IOException("Invalid input count " + n);
+        int tick = 0;
+        for (int i = 0; i < n; i++) {
+            int delta = readVarInt(data);
+            if (delta < 0 || tick + delta < tick)
+                throw new IOException("Invalid tick delta " + delta + " at input " + i);
+            tick += delta;
+            replay.record(tick, (char) data.readUnsignedByte());
+        }
+
+        StepResult result = StepResult.values()[readOrdinal(data, StepResult.values().length, "result")];
+        int mushrooms = data.readInt();
+        int elapsedSeconds = data.readInt();
+        if (mushrooms < 0)
+            throw new IOException("Invalid mushroom count " + mushrooms);
+        if (elapsedSeconds < tick || elapsedSeconds > MAX_ELAPSED_SECONDS)
+            throw new IOException("Invalid elapsed seconds " + elapsedSeconds
+                    + " (last input at " + tick + ", limit " + MAX_ELAPSED_SECONDS + ")");
+        replay.finish(result, mushrooms, elapsedSeconds);
+        return replay;
+    }
+
+    /**
+     * Writes the replay into the directory (created if needed).
+     *
+     * @param dir
+     * @return path of the written file
+     * @throws IOException
+     */
+    public Path save(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Path target = dir.resolve(getFileName());
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+            write(out);
+        }
+        return target;
+    }
+
+    public static Replay load(Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            return read(in);
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream data, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            data.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data.writeByte(value);
+    }
+
+    private static int readOrdinal(DataInputStream data, int count, String what) throws IOException {
+        int ordinal = data.readUnsignedByte();
+        if (ordinal >= count)
+            throw new IOException("Invalid " + what + " " + ordinal);
+        return ordinal;
+    }
+
+    private static int readVarInt(DataInputStream data) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = data.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+}
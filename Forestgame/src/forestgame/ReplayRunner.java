@@ -0,0 +1,137 @@
+package forestgame;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Re-simulates recorded sessions headlessly, as fast as the CPU allows, and
+ * checks that they end the way the recording (and the saved highscore) says.
+ *
+ * Usage: java forestgame.ReplayRunner [replay.ferp | replaysDir]...
+ * Exits with status 1 if any replay does not reproduce.
+ */
+public class ReplayRunner {
+
+    public static final String DEFAULT_DIR = "replays";
+
+    /**
+     * Plays the recorded inputs back on a fresh copy of the level.
+     *
+     * @param replay
+     * @return outcome of the re-simulated session
+     */
+    public static SessionOutcome run(Replay replay) {
+        LoadedLevel level;
+        try {
+            level = LevelCache.load(replay.getLevelPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load " + replay.getLevelPath(), e);
+        }
+
+        GameState state = new GameState(level, replay.getSeed());
+        SimulationEngine engine = new SimulationEngine(state);
+        engine.setWolfBehavior(replay.getWolfBehavior());
+        engine.reset();
+
+        StepResult last = StepResult.NONE;
+        int livesLost = 0;
+        int next = 0;
+        int inputs = replay.getInputCount();
+
+        while (true) {
+            int now = state.getElapsedSeconds();
+
+            // inputs stamped with second N were applied after tick N
+            while (next < inputs && replay.getTick(next) == now && !last.isFinal()) {
+                last = engine.applyInput(replay.getInput(next++));
+                if (last == StepResult.CAUGHT || last == StepResult.GAME_OVER)
+                    livesLost++;
+            }
+
+            if (last.isFinal() || (next >= inputs && now >= replay.getElapsedSeconds()))
+                break;
+
+            last = engine.tick();
+            if (last == StepResult.CAUGHT || last == StepResult.GAME_OVER)
+                livesLost++;
+        }
+
+        return new SessionOutcome(
+                state.getLevelName(),
+                replay.getSeed(),
+                last.isFinal() ? last : StepResult.NONE,
+                state.getPlayer().getMushroomsCollected(),
+                state.getElapsedSeconds(),
+                livesLost);
+    }
+
+    /**
+     * @param replay
+     * @param outcome result of {@link #run(Replay)}
+     * @return true if the re-simulation matches the recorded result
+     */
+    public static boolean matches(Replay replay, SessionOutcome outcome) {
+        return outcome.getResult() == replay.getResult()
+                && outcome.getMushrooms() == replay.getMushrooms()
+                && outcome.getElapsedSeconds() == replay.getElapsedSeconds();
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> roots = args.length > 0 ? List.of(args) : List.of(DEFAULT_DIR);
+
+        List<Path> files = new ArrayList<>();
+        for (String arg : roots) {
+            Path path = Paths.get(arg);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> list = Files.list(path)) {
+                    list.filter(f -> f.getFileName().toString().endsWith(Replay.EXTENSION))
+                            .sorted()
+                            .forEach(files::add);
+                }
+            } else {
+                files.add(path);
+            }
+        }
+
+        long start = System.nanoTime();
+        List<String> mismatches = files.parallelStream()
+                .map(ReplayRunner::check)
+                .filter(msg -> msg != null)
+                .collect(Collectors.toList());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        mismatches.forEach(System.out::println);
+        System.out.printf("%d replays, %d mismatches in %d ms%n", files.size(), mismatches.size(), elapsedMs);
+
+        if (!mismatches.isEmpty())
+            System.exit(1);
+    }
+
+    /**
+     * @return a description of the mismatch, or null if the replay reproduces
+     */
+    private static String check(Path file) {
+        try {
+            Replay replay = Replay.load(file);
+            SessionOutcome outcome = run(replay);
+            if (matches(replay, outcome))
+                return null;
+
+            return String.format("%s: recorded %s mushrooms=%d time=%d, replayed %s mushrooms=%d time=%d",
+                    file, replay.getResult(), replay.getMushrooms(), replay.getElapsedSeconds(),
+                    outcome.getResult(), outcome.getMushrooms(), outcome.getElapsedSeconds());
+        } catch (IOException | UncheckedIOException e) {
+            return file + ": " + e.getMessage();
+        } catch (RuntimeException e) {
+            // a damaged replay is one mismatch, not the end of the run
+            return file + ": " + e;
+        }
+    }
+}
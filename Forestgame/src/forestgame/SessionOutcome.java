@@ -0,0 +1,55 @@
+package forestgame;
+
+/**
+ * Result of one headless session run by the BatchRunner.
+ */
+public class SessionOutcome {
+
+    private final String levelName;
+    private final long seed;
+    private final StepResult result;
+    private final int mushrooms;
+    private final int elapsedSeconds;
+    private final int livesLost;
+
+    public SessionOutcome(String levelName,
+                          long seed,
+                          StepResult result,
+                          int mushrooms,
+                          int elapsedSeconds,
+                          int livesLost) {
+        this.levelName = levelName;
+        this.seed = seed;
+        this.result = result;
+        this.mushrooms = mushrooms;
+        this.elapsedSeconds = elapsedSeconds;
+        this.livesLost = livesLost;
+    }
+
+    public String getLevelName() {
+        return levelName;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return LEVEL_CLEARED, GAME_OVER, or NONE if the tick limit was hit
+     */
+    public StepResult getResult() {
+        return result;
+    }
+
+    public int getMushrooms() {
+        return mushrooms;
+    }
+
+    public int getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+
+    public int getLivesLost() {
+        return livesLost;
+    }
+}
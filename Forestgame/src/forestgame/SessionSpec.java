@@ -0,0 +1,65 @@
+package forestgame;
+
+/**
+ * Describes one headless session for the BatchRunner: which level to play,
+ * the random seed for wolf movement and a scripted sequence of player inputs.
+ *
+ * The input script holds one character per tick: W, A, S, D move the player
+ * before that tick is simulated, any other character means "stand still".
+ * Once the script is exhausted the player stands still until the session
+ * ends or {@code maxTicks} is reached.
+ */
+public class SessionSpec {
+
+    private final String levelPath;
+    private final long seed;
+    private final String inputs;
+    private final int maxTicks;
+    private final WolfBehavior wolfBehavior;
+
+    /**
+     * @param levelPath path of the level file
+     * @param seed      seed for the session's random generator
+     * @param inputs    scripted player inputs, one character per tick
+     * @param maxTicks  upper bound on simulated seconds
+     */
+    public SessionSpec(String levelPath, long seed, String inputs, int maxTicks) {
+        this(levelPath, seed, inputs, maxTicks, WolfBehavior.WANDER);
+    }
+
+    /**
+     * @param levelPath    path of the level file
+     * @param seed         seed for the session's random generator
+     * @param inputs       scripted player inputs, one character per tick
+     * @param maxTicks     upper bound on simulated seconds
+     * @param wolfBehavior how the wolves move
+     */
+    public SessionSpec(String levelPath, long seed, String inputs, int maxTicks,
+                       WolfBehavior wolfBehavior) {
+        this.levelPath = levelPath;
+        this.seed = seed;
+        this.inputs = inputs;
+        this.maxTicks = maxTicks;
+        this.wolfBehavior = wolfBehavior;
+    }
+
+    public String getLevelPath() {
+        return levelPath;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getInputs() {
+        return inputs;
+    }
+
+    public int getMaxTicks() {
+        return maxTicks;
+    }
+
+    public WolfBehavior getWolfBehavior() {
+        return wolfBehavior;
+    }
+}
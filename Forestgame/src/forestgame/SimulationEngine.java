@@ -0,0 +1,209 @@
+package forestgame;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Headless, fixed-step game simulation.
+ *
+ * One call to {@link #tick()} advances the game by one second of game time
+ * (power-up expiry, wolf movement, collision). Player input is applied with
+ * {@link #movePlayer(int, int)}. The engine never touches Swing, so it can be
+ * stepped as fast as the CPU allows; GamePanel drives it from its timer.
+ */
+public class SimulationEngine {
+
+    public static final int POWERUP_DURATION_SECONDS = 5;
+
+    private final GameState gameState;
+    private final RandomGenerator random;
+
+    private WolfBehavior wolfBehavior = WolfBehavior.WANDER;
+    private DistanceField distanceField;     // created on first pursuit
+
+    /**
+     * Simulates the state with its own seeded generator, so the run can be
+     * reproduced from GameState.getSeed().
+     *
+     * @param gameState state to simulate (mutated in place)
+     */
+    public SimulationEngine(GameState gameState) {
+        this(gameState, gameState.getRandom());
+    }
+
+    /**
+     * @param gameState state to simulate (mutated in place)
+     * @param random    source of randomness for wolf movement
+     */
+    public SimulationEngine(GameState gameState, RandomGenerator random) {
+        this.gameState = gameState;
+        this.random = random;
+    }
+
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    public WolfBehavior getWolfBehavior() {
+        return wolfBehavior;
+    }
+
+    public void setWolfBehavior(WolfBehavior wolfBehavior) {
+        this.wolfBehavior = wolfBehavior;
+    }
+
+    /**
+     * Resets the clock of the session so it can be (re)started.
+     */
+    public void reset() {
+        gameState.resetElapsedSeconds();
+        gameState.setWolfLastMoveSecond(0);
+        gameState.setGameOver(false);
+    }
+
+    /**
+     * Advances the simulation by one second of game time.
+     *
+     * @return what happened during the tick
+     */
+    public StepResult tick() {
+        if (gameState.isGameOver()) {
+            return StepResult.NONE;
+        }
+
+        gameState.incrementElapsedSeconds();
+        updatePowerUps();
+        updateWolfMovement();
+        return checkWolfCollision();
+    }
+
+    /**
+     * Moves the player by the given delta and applies pickups and collisions.
+     *
+     * @param dRow
+     * @param dCol
+     * @return what happened during the move
+     */
+    public StepResult movePlayer(int dRow, int dCol) {
+        if (gameState.isGameOver()) {
+            return StepResult.BLOCKED;
+        }
+
+        Player p = gameState.getPlayer();
+        GameMap m = gameState.getMap();
+
+        if (!p.moveBy(dRow, dCol, m)) {
+            return StepResult.BLOCKED;
+        }
+
+        int r = p.getRow();
+        int c = p.getCol();
+        TileType t = m.getTile(r, c);
+        gameState.getVisibility().update(r, c);
+
+        if (t == TileType.MUSHROOM) {
+            m.setTile(r, c, TileType.GROUND);
+            p.incrementMushroomsCollected();
+
+            if (!m.hasAnyMushrooms()) {
+                gameState.setGameOver(true);
+                return StepResult.LEVEL_CLEARED;
+            }
+        } else if (t == TileType.SPEED_POWERUP) {
+            m.setTile(r, c, TileType.GROUND);
+            p.activateSpeed(gameState.getElapsedSeconds(), POWERUP_DURATION_SECONDS);
+        } else if (t == TileType.INVIS_POWERUP) {
+            m.setTile(r, c, TileType.GROUND);
+            p.activateInvisibility(gameState.getElapsedSeconds(), POWERUP_DURATION_SECONDS);
+        } else if (t == TileType.EXTRA_LIFE) {
+            m.setTile(r, c, TileType.GROUND);
+            p.incrementLives();
+        }
+
+        return checkWolfCollision();
+    }
+
+    /**
+     * Applies one keyboard input: W, A, S or D moves the player, anything
+     * else is ignored.
+     *
+     * @param input
+     * @return what happened during the move
+     */
+    public StepResult applyInput(char input) {
+        return switch (input) {
+            case 'W' -> movePlayer(-1, 0);
+            case 'S' -> movePlayer(1, 0);
+            case 'A' -> movePlayer(0, -1);
+            case 'D' -> movePlayer(0, 1);
+            default -> StepResult.NONE;
+        };
+    }
+
+    private void updatePowerUps() {
+        Player p = gameState.getPlayer();
+        int now = gameState.getElapsedSeconds();
+
+        if (p.isSpeedActive() &&
+                now >= p.getSpeedExpiresAtSecond())
+            p.deactivateSpeed();
+
+        if (p.isInvisActive() &&
+                now >= p.getInvisExpiresAtSecond())
+            p.deactivateInvisibility();
+    }
+
+    private void updateWolfMovement() {
+        Player player = gameState.getPlayer();
+
+        int now = gameState.getElapsedSeconds();
+        int lastMove = gameState.getWolfLastMoveSecond();
+
+        int interval = player.isSpeedActive() ? 2 : 1;
+
+        if (now - lastMove >= interval) {
+
+            GameMap map = gameState.getMap();
+            WolfPack pack = gameState.getWolfPack();
+
+            if (wolfBehavior == WolfBehavior.PURSUE && !player.isInvisActive()) {
+                if (distanceField == null)
+                    distanceField = new DistanceField(map, gameState.getDistanceTable());
+                distanceField.update(player.getRow(), player.getCol());
+                pack.pursue(map, distanceField, random, gameState.getWolfGrid());
+            } else {
+                pack.update(map, random, gameState.getWolfGrid());
+            }
+
+            gameState.setWolfLastMoveSecond(now);
+        }
+    }
+
+    /**
+     * Checks whether any wolf is on or next to the player (via the wolf
+     * occupancy grid) and, if so,
+     * takes a life and respawns the player at the campfire.
+     *
+     * @return CAUGHT, GAME_OVER or NONE
+     */
+    public StepResult checkWolfCollision() {
+        Player p = gameState.getPlayer();
+
+        if (p.isInvisActive())
+            return StepResult.NONE;
+
+        if (!gameState.getWolfGrid().isWolfWithinOne(p.getRow(), p.getCol()))
+            return StepResult.NONE;
+
+        p.decrementLives();
+
+        if (p.getLives() > 0) {
+            p.respawn(gameState.getMap().getCampfireRow(),
+                    gameState.getMap().getCampfireCol());
+            gameState.getVisibility().update(p.getRow(), p.getCol());
+            return StepResult.CAUGHT;
+        }
+
+        gameState.setGameOver(true);
+        return StepResult.GAME_OVER;
+    }
+}
@@ -0,0 +1,24 @@
+package forestgame;
+
+/**
+ * Outcome of one simulation step (a timer tick or a player move).
+ */
+public enum StepResult {
+    /** The player tried to move into a blocked tile. */
+    BLOCKED,
+    /** The step completed and nothing noteworthy happened. */
+    NONE,
+    /** A wolf caught the player, who lost a life and respawned. */
+    CAUGHT,
+    /** A wolf caught the player on the last life. */
+    GAME_OVER,
+    /** The player collected the last mushroom. */
+    LEVEL_CLEARED;
+
+    /**
+     * @return true if the session has ended with this step
+     */
+    public boolean isFinal() {
+        return this == GAME_OVER || this == LEVEL_CLEARED;
+    }
+}
@@ -0,0 +1,148 @@
+package forestgame;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Every tile and actor sprite, drawn once into a single image.
+ *
+ * Cells are laid out in one row: one opaque cell per TileType (ground, the
+ * tile's shape and the grid line), then the translucent wolf and player
+ * sprites. Painting a tile is a single drawImage from its cell.
+ */
+class TileAtlas {
+
+    private static final Color GROUND_COLOR = new Color(34, 139, 34);
+    private static final Color TREE_COLOR = new Color(0, 80, 0);
+    private static final Color BUSH_COLOR = new Color(0, 150, 0);
+    private static final Color CAMPFIRE_WOOD_COLOR = new Color(139, 69, 19);
+    private static final Color GRID_COLOR = new Color(0, 0, 0, 80);
+
+    private static final TileType[] TILE_TYPES = TileType.values();
+    private static final int WOLF_CELL = TILE_TYPES.length;
+    private static final int PLAYER_CELL = WOLF_CELL + 1;
+
+    private final int size;
+    private final BufferedImage image;
+
+    /**
+     * @param size   tile size in pixels
+     * @param config screen configuration to render for, or null (headless)
+     */
+    TileAtlas(int size, GraphicsConfiguration config) {
+        this.size = size;
+        int width = (PLAYER_CELL + 1) * size;
+        this.image = config != null
+                ? config.createCompatibleImage(width, size, Transparency.TRANSLUCENT)
+                : new BufferedImage(width, size, BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                RenderingHints.VALUE_ANTIALIAS_ON);
+        for (TileType t : TILE_TYPES) {
+            paintTile(g, t, t.ordinal() * size, 0);
+        }
+        paintWolf(g, WOLF_CELL * size, 0);
+        paintPlayer(g, PLAYER_CELL * size, 0);
+        g.dispose();
+    }
+
+    int getTileSize() {
+        return size;
+    }
+
+    void drawTile(Graphics g, TileType t, int x, int y) {
+        drawCell(g, t.ordinal(), x, y);
+    }
+
+    void drawWolf(Graphics g, int x, int y) {
+        drawCell(g, WOLF_CELL, x, y);
+    }
+
+    void drawPlayer(Graphics g, int x, int y) {
+        drawCell(g, PLAYER_CELL, x, y);
+    }
+
+    private void drawCell(Graphics g, int cell, int x, int y) {
+        int sx = cell * size;
+        g.drawImage(image, x, y, x + size, y + size, sx, 0, sx + size, size, null);
+    }
+
+    private void paintTile(Graphics2D g2, TileType t, int x, int y) {
+        g2.setColor(GROUND_COLOR);
+        g2.fillRect(x, y, size, size);
+
+        switch (t) {
+            case TREE -> {
+                g2.setColor(TREE_COLOR);
+                g2.fillRect(x + 4, y + 4, size - 8, size - 8);
+            }
+            case ROCK -> {
+                g2.setColor(Color.GRAY);
+                g2.fillOval(x + 5, y + 5,
+                        size - 10, size - 10);
+            }
+            case BUSH -> {
+                g2.setColor(BUSH_COLOR);
+                g2.fillOval(x + 3, y + 3,
+                        size - 6, size - 6);
+            }
+            case CAMPFIRE -> {
+                g2.setColor(CAMPFIRE_WOOD_COLOR);
+                g2.fillRect(x + 6, y + size - 8,
+                        size - 12, 4);
+                g2.setColor(Color.ORANGE);
+                g2.fillOval(x + 8, y + 4,
+                        size - 16, size - 8);
+            }
+            case MUSHROOM -> {
+                g2.setColor(Color.WHITE);
+                g2.fillRect(x + 10, y + 14,
+                        size - 20, size - 18);
+                g2.setColor(Color.RED);
+                g2.fillOval(x + 6, y + 4,
+                        size - 12, size - 16);
+            }
+            case SPEED_POWERUP -> paintBadge(g2, Color.YELLOW, "S", x, y);
+            case INVIS_POWERUP -> paintBadge(g2, Color.CYAN, "I", x, y);
+            case EXTRA_LIFE -> paintBadge(g2, Color.PINK, "L", x, y);
+            default -> { }
+        }
+
+        // the grid line is clipped to the cell, so only its top and left edges show
+        g2.setColor(GRID_COLOR);
+        g2.setClip(x, y, size, size);
+        g2.drawRect(x, y, size, size);
+        g2.setClip(null);
+    }
+
+    private void paintBadge(Graphics2D g2, Color color, String letter, int x, int y) {
+        g2.setColor(color);
+        g2.fillOval(x + 8, y + 8,
+                size - 16, size - 16);
+        g2.setColor(Color.BLACK);
+        g2.drawString(letter, x + size / 2 - 3,
+                y + size / 2 + 4);
+    }
+
+    private void paintWolf(Graphics2D g2, int x, int y) {
+        g2.setColor(Color.RED);
+        g2.fillOval(x + 6, y + 6,
+                size - 12, size - 12);
+        g2.setColor(Color.WHITE);
+        g2.drawString("W",
+                x + size / 2 - 4,
+                y + size / 2 + 5);
+    }
+
+    private void paintPlayer(Graphics2D g2, int x, int y) {
+        g2.setColor(Color.BLUE);
+        g2.fillOval(x + 6, y + 6,
+                size - 12, size - 12);
+    }
+}
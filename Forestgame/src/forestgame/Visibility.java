@@ -0,0 +1,180 @@
+package forestgame;
+
+import java.util.BitSet;
+
+/**
+ * Fog of war for one session: which tiles the player sees right now and
+ * which tiles they have ever seen, as bitmaps over the map answered in O(1).
+ *
+ * The player sees the square of tiles within the radius (Chebyshev
+ * distance). With line of sight enabled, trees and rocks additionally hide
+ * everything behind them (see FieldOfView). When the player takes a single
+ * step without line of sight, only the strip leaving the square and the
+ * strip entering it are updated; other moves recompute the square around
+ * the player.
+ */
+public class Visibility {
+
+    public static final int DEFAULT_RADIUS = 3;
+    // what GamePanel shows; headless sessions never draw the fog and skip it
+    public static final boolean DEFAULT_LINE_OF_SIGHT = true;
+
+    private final FieldOfView fieldOfView;   // null without line of sight
+    private final int rows;
+    private final int cols;
+    private final int radius;
+    private final boolean lineOfSight;
+
+    private final BitSet visible;
+    private final BitSet explored;
+
+    private int viewerRow = -1;
+    private int viewerCol = -1;
+    private int version;
+
+    /**
+     * @param map
+     * @param radius      how many tiles the player sees in each direction
+     * @param lineOfSight whether trees and rocks block the view
+     */
+    public Visibility(GameMap map, int radius, boolean lineOfSight) {
+        this(map, radius, lineOfSight ? new FieldOfView(map) : null);
+    }
+
+    /**
+     * @param map
+     * @param radius      how many tiles the player sees in each direction
+     * @param fieldOfView line-of-sight results to use (possibly shared
+     *                    between sessions), or null to see through everything
+     */
+    public Visibility(GameMap map, int radius, FieldOfView fieldOfView) {
+        if (radius < 0)
+            throw new IllegalArgumentException("Radius must not be negative: " + radius);
+
+        this.fieldOfView = fieldOfView;
+        this.rows = map.getRows();
+        this.cols = map.getCols();
+        this.radius = radius;
+        this.lineOfSight = fieldOfView != null;
+        this.visible = new BitSet(rows * cols);
+        this.explored = new BitSet(rows * cols);
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public boolean isLineOfSight() {
+        return lineOfSight;
+    }
+
+    /**
+     * @return a counter that changes whenever the visible set changes
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public boolean isVisible(int row, int col) {
+        return inBounds(row, col) && visible.get(row * cols + col);
+    }
+
+    /**
+     * @return true if the tile is visible now or has been before
+     */
+    public boolean isExplored(int row, int col) {
+        return inBounds(row, col) && explored.get(row * cols + col);
+    }
+
+    /**
+     * Moves the viewer to the given tile and updates the visible set.
+     *
+     * @param row
+     * @param col
+     */
+    public void update(int row, int col) {
+        if (row == viewerRow && col == viewerCol)
+            return;
+
+        int dRow = row - viewerRow;
+        int dCol = col - viewerCol;
+        if (!lineOfSight && viewerRow >= 0 && Math.abs(dRow) + Math.abs(dCol) == 1) {
+            step(dRow, dCol);
+        } else {
+            if (viewerRow >= 0)
+                fillSquare(viewerRow, viewerCol, false);
+            viewerRow = row;
+            viewerCol = col;
+            if (lineOfSight)
+                revealInSight();
+            else
+                fillSquare(row, col, true);
+        }
+        version++;
+    }
+
+    /**
+     * Shifts the square by one tile: clears the trailing edge and reveals
+     * the leading edge.
+     */
+    private void step(int dRow, int dCol) {
+        if (dRow != 0) {
+            fillRow(viewerRow - dRow * radius, viewerCol - radius, viewerCol + radius, false);
+            viewerRow += dRow;
+            fillRow(viewerRow + dRow * radius, viewerCol - radius, viewerCol + radius, true);
+        } else {
+            fillCol(viewerCol - dCol * radius, viewerRow - radius, viewerRow + radius, false);
+            viewerCol += dCol;
+            fillCol(viewerCol + dCol * radius, viewerRow - radius, viewerRow + radius, true);
+        }
+    }
+
+    private void fillSquare(int row, int col, boolean value) {
+        for (int r = row - radius; r <= row + radius; r++) {
+            fillRow(r, col - radius, col + radius, value);
+        }
+    }
+
+    private void fillRow(int row, int fromCol, int toCol, boolean value) {
+        if (row < 0 || row >= rows)
+            return;
+        int from = row * cols + Math.max(fromCol, 0);
+        int to = row * cols + Math.min(toCol, cols - 1) + 1;
+        if (from >= to)
+            return;
+
+        visible.set(from, to, value);
+        if (value)
+            explored.set(from, to);
+    }
+
+    private void fillCol(int col, int fromRow, int toRow, boolean value) {
+        if (col < 0 || col >= cols)
+            return;
+        for (int r = Math.max(fromRow, 0); r <= Math.min(toRow, rows - 1); r++) {
+            visible.set(r * cols + col, value);
+            if (value)
+                explored.set(r * cols + col);
+        }
+    }
+
+    /**
+     * Reveals the tiles of the field of view around the viewer.
+     */
+    private void revealInSight() {
+        long[] mask = fieldOfView.compute(viewerRow, viewerCol, radius);
+        for (int dr = -radius; dr <= radius; dr++) {
+            for (int dc = -radius; dc <= radius; dc++) {
+                if (FieldOfView.isSet(mask, radius, dr, dc)) {
+                    int index = (viewerRow + dr) * cols + viewerCol + dc;
+                    visible.set(index);
+                    explored.set(index);
+                }
+            }
+        }
+    }
+
+    private boolean inBounds(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+}
@@ -0,0 +1,11 @@
+package forestgame;
+
+/**
+ * How wolves choose where to go.
+ */
+public enum WolfBehavior {
+    /** Keep walking straight, pick a random open direction when blocked. */
+    WANDER,
+    /** Step along the shortest path toward the player (wander while invisible). */
+    PURSUE
+}
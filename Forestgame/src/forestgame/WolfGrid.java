@@ -0,0 +1,69 @@
+package forestgame;
+
+/**
+ * Occupancy grid for wolves: how many wolves stand on each tile.
+ *
+ * Kept up to date by the SimulationEngine as wolves move, so "is a wolf on
+ * or next to this tile" is a lookup of at most five cells regardless of
+ * how many wolves there are.
+ */
+public class WolfGrid {
+
+    private final int rows;
+    private final int cols;
+    private final int[] counts;
+
+    public WolfGrid(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.counts = new int[rows * cols];
+    }
+
+    public void add(int row, int col) {
+        counts[row * cols + col]++;
+    }
+
+    public void remove(int row, int col) {
+        counts[row * cols + col]--;
+    }
+
+    /**
+     * Records a wolf moving from one tile to another.
+     */
+    public void move(int fromRow, int fromCol, int toRow, int toCol) {
+        counts[fromRow * cols + fromCol]--;
+        counts[toRow * cols + toCol]++;
+    }
+
+    /**
+     * @param row
+     * @param col
+     * @return number of wolves on the tile (0 outside the map)
+     */
+    public int countAt(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            return 0;
+        }
+        return counts[row * cols + col];
+    }
+
+    public boolean isOccupied(int row, int col) {
+        return countAt(row, col) > 0;
+    }
+
+    /**
+     * Returns true if a wolf stands on the tile or on one of its four
+     * orthogonal neighbours (Manhattan distance at most 1).
+     *
+     * @param row
+     * @param col
+     * @return 
+     */
+    public boolean isWolfWithinOne(int row, int col) {
+        return isOccupied(row, col)
+                || isOccupied(row - 1, col)
+                || isOccupied(row + 1, col)
+                || isOccupied(row, col - 1)
+                || isOccupied(row, col + 1);
+    }
+}
@@ -0,0 +1,235 @@
+package forestgame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Structure-of-arrays storage for wolves: positions and directions live in
+ * parallel primitive arrays and are updated in one tight loop.
+ *
+ * Building a pack copies the wolves' state into the arrays; the given Wolf
+ * objects are left alone. The pack hands out read-only Wolf views onto its
+ * slots, because moving a wolf must also update the WolfGrid, which only
+ * the pack's own update methods do.
+ */
+public class WolfPack {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // read in place by GamePanel; written only by the update methods below
+    final int[] rows;
+    final int[] cols;
+    final byte[] dirs;     // Direction ordinals
+    private final List<Wolf> views;
+
+    /**
+     * Read-only view onto one slot of a pack.
+     */
+    private static final class View extends Wolf {
+        private final WolfPack pack;
+        private final int index;
+
+        View(WolfPack pack, int index) {
+            super(pack.rows[index], pack.cols[index]);
+            this.pack = pack;
+            this.index = index;
+        }
+
+        @Override
+        public int getRow() {
+            return pack.rows[index];
+        }
+
+        @Override
+        public int getCol() {
+            return pack.cols[index];
+        }
+
+        @Override
+        public Direction getDirection() {
+            return pack.getDirection(index);
+        }
+
+        @Override
+        public void setRow(int row) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setCol(int col) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setDirection(Direction dir) {
+            throw readOnly();
+        }
+
+        @Override
+        public void update(GameMap map, RandomGenerator rand) {
+            throw readOnly();
+        }
+
+        private static UnsupportedOperationException readOnly() {
+            return new UnsupportedOperationException("Wolves of a pack move through WolfPack.update or pursue");
+        }
+    }
+
+    /**
+     * Copies the given wolves into one pack.
+     *
+     * @param wolves
+     */
+    public WolfPack(List<Wolf> wolves) {
+        int n = wolves.size();
+        this.rows = new int[n];
+        this.cols = new int[n];
+        this.dirs = new byte[n];
+
+        List<Wolf> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Wolf w = wolves.get(i);
+            rows[i] = w.getRow();
+            cols[i] = w.getCol();
+            dirs[i] = (byte) w.getDirection().ordinal();
+        }
+        for (int i = 0; i < n; i++) {
+            list.add(new View(this, i));
+        }
+        this.views = Collections.unmodifiableList(list);
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    public int getRow(int i) {
+        return rows[i];
+    }
+
+    public int getCol(int i) {
+        return cols[i];
+    }
+
+    public Direction getDirection(int i) {
+        return DIRECTIONS[dirs[i]];
+    }
+
+    /**
+     * @return read-only Wolf views, one per slot, in slot order
+     */
+    public List<Wolf> getWolves() {
+        return views;
+    }
+
+    /**
+     * Moves every wolf one step and keeps the occupancy grid in sync.
+     *
+     * @param map
+     * @param rand
+     * @param grid
+     */
+    public void update(GameMap map, RandomGenerator rand, WolfGrid grid) {
+        for (int i = 0, n = rows.length; i < n; i++) {
+            int fromRow = rows[i];
+            int fromCol = cols[i];
+            step(i, map, rand);
+            grid.move(fromRow, fromCol, rows[i], cols[i]);
+        }
+    }
+
+    /**
+     * Moves every wolf one step down the distance field toward its source.
+     * Wolves that cannot reach the source wander instead.
+     *
+     * @param map
+     * @param field distance field toward the player, already up to date
+     * @param rand
+     * @param grid
+     */
+    public void pursue(GameMap map, DistanceField field, RandomGenerator rand, WolfGrid grid) {
+        for (int i = 0, n = rows.length; i < n; i++) {
+            int fromRow = rows[i];
+            int fromCol = cols[i];
+            if (!chase(i, map, field)) {
+                step(i, map, rand);
+            }
+            grid.move(fromRow, fromCol, rows[i], cols[i]);
+        }
+    }
+
+    /**
+     * Moves one wolf to the open neighbour closest to the field's source,
+     * preferring its current direction on ties.
+     *
+     * @return false if no neighbour can reach the source
+     */
+    private boolean chase(int i, GameMap map, DistanceField field) {
+        int row = rows[i];
+        int col = cols[i];
+        int exits = map.getWolfExits(row, col);
+
+        int best = -1;
+        int bestDist = DistanceField.UNREACHABLE;
+        while (exits != 0) {
+            int d = Integer.numberOfTrailingZeros(exits);
+            exits &= exits - 1;
+
+            Direction dir = DIRECTIONS[d];
+            int dist = field.distance(row + dir.dRow, col + dir.dCol);
+            if (dist < bestDist || (dist == bestDist && d == dirs[i])) {
+                best = d;
+                bestDist = dist;
+            }
+        }
+
+        if (best < 0) {
+            return false;
+        }
+
+        dirs[i] = (byte) best;
+        rows[i] = row + DIRECTIONS[best].dRow;
+        cols[i] = col + DIRECTIONS[best].dCol;
+        return true;
+    }
+
+    /**
+     * Moves one wolf one step, possibly changing direction if blocked.
+     * Uses the map's precomputed exit mask and allocates nothing.
+     */
+    private void step(int i, GameMap map, RandomGenerator rand) {
+        int dir = nextDirection(map.getWolfExits(rows[i], cols[i]), dirs[i], rand);
+        if (dir < 0) {
+            return;     // no valid directions, wolf stays in place
+        }
+        dirs[i] = (byte) dir;
+        rows[i] += DIRECTIONS[dir].dRow;
+        cols[i] += DIRECTIONS[dir].dCol;
+    }
+
+    /**
+     * Keeps the direction if it is open, otherwise picks a random open one
+     * (in Direction order, so the random draw matches the list-based pick).
+     *
+     * @param exits open directions, see GameMap.getWolfExits
+     * @param dir   current Direction ordinal
+     * @param rand
+     * @return the Direction ordinal to move in, or -1 if every way is blocked
+     */
+    static int nextDirection(int exits, int dir, RandomGenerator rand) {
+        if ((exits & (1 << dir)) != 0) {
+            return dir;
+        }
+        int options = Integer.bitCount(exits);
+        if (options == 0) {
+            return -1;
+        }
+        int pick = rand.nextInt(options);
+        for (int k = 0; k < pick; k++) {
+            exits &= exits - 1;     // drop the lowest open direction
+        }
+        return Integer.numberOfTrailingZeros(exits);
+    }
+}
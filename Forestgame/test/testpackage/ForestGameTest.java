@@ -31,6 +31,129 @@ public class ForestGameTest {
         assertEquals(20, level.getMap().getCols());
     }
 
+    @Test
+    public void testLevelLoaderAcceptsAnyRectangle() throws IOException {
+
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("level", ".txt");
+        java.nio.file.Files.write(file, List.of(
+                "#######",
+                "#C..M.#",
+                "#P.W..#",
+                "#######"));
+
+        try {
+            LoadedLevel level = LevelLoader.loadFromFile(file.toString());
+            assertEquals(4, level.getMap().getRows());
+            assertEquals(7, level.getMap().getCols());
+            assertEquals(2, level.getPlayer().getRow());
+            assertEquals(1, level.getWolves().size());
+        } finally {
+            java.nio.file.Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testLevelLoaderReportsMalformedLine() throws IOException {
+
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("level", ".txt");
+        java.nio.file.Files.write(file, List.of(
+                "#####",
+                "#CP.#",
+                "#M.W",
+                "#####"));
+
+        try {
+            LevelLoader.loadFromFile(file.toString());
+            fail("Expected IOException for short line");
+        } catch (IOException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().startsWith("Line 3, column 5"));
+        } finally {
+            java.nio.file.Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testBinaryLevelRoundTrip() throws IOException {
+
+        LoadedLevel text = LevelLoader.loadFromFile("levels/level7.txt");
+
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("level7", LevelLoader.BINARY_EXTENSION);
+        try (java.io.OutputStream out = java.nio.file.Files.newOutputStream(file)) {
+            LevelConverter.write(text, out);
+        }
+
+        try {
+            LoadedLevel binary = LevelLoader.loadFromFile(file.toString());
+            GameMap a = text.getMap();
+            GameMap b = binary.getMap();
+
+            assertEquals(a.getRows(), b.getRows());
+            assertEquals(a.getCols(), b.getCols());
+            for (int r = 0; r < a.getRows(); r++) {
+                for (int c = 0; c < a.getCols(); c++) {
+                    assertEquals(a.getTile(r, c), b.getTile(r, c));
+                }
+            }
+            assertEquals(a.getCampfireCol(), b.getCampfireCol());
+            assertEquals(text.getPlayer().getRow(), binary.getPlayer().getRow());
+            assertEquals(text.getWolves().size(), binary.getWolves().size());
+        } finally {
+            java.nio.file.Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testBinaryLevelRejectsCorruptHeader() throws IOException {
+
+        java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        LevelConverter.write(LevelLoader.loadFromFile("levels/level1.txt"), bytes);
+        byte[] valid = bytes.toByteArray();
+
+        // offsets: player row 14, wolf count 30 (see LevelLoader.loadFromBinary)
+        int[][] corruptions = {{14, 1 << 20}, {30, -1}, {30, Integer.MAX_VALUE}};
+        for (int[] corruption : corruptions) {
+            byte[] data = valid.clone();
+            java.nio.ByteBuffer.wrap(data).putInt(corruption[0], corruption[1]);
+
+            java.nio.file.Path file = java.nio.file.Files.createTempFile("corrupt", LevelLoader.BINARY_EXTENSION);
+            java.nio.file.Files.write(file, data);
+            try {
+                LevelLoader.loadFromFile(file.toString());
+                fail("Expected IOException for " + corruption[1] + " at offset " + corruption[0]);
+            } catch (IOException ex) {
+                // reported as a bad file, not a crash
+            } finally {
+                java.nio.file.Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testLevelCacheHandsOutIndependentCopies() throws IOException {
+
+        LevelTemplate template = LevelCache.getTemplate("levels/level1.txt");
+        assertSame(template, LevelCache.getTemplate("levels/level1.txt"));
+
+        LoadedLevel first = template.newLevel();
+        LoadedLevel second = template.newLevel();
+        assertNotSame(first.getMap(), second.getMap());
+
+        GameMap map = first.getMap();
+        int mushrooms = map.getMushroomsRemaining();
+        for (int r = 0; r < map.getRows(); r++) {
+            for (int c = 0; c < map.getCols(); c++) {
+                if (map.getTile(r, c) == TileType.MUSHROOM) {
+                    map.setTile(r, c, TileType.GROUND);
+                }
+            }
+        }
+        first.getPlayer().moveBy(0, 1, map);
+
+        assertEquals(0, map.getMushroomsRemaining());
+        assertEquals(mushrooms, second.getMap().getMushroomsRemaining());
+        assertEquals(template.newLevel().getPlayer().getCol(), second.getPlayer().getCol());
+    }
+
     // ---------------------------
     // 2. PLAYER MOVEMENT TESTS
     // ---------------------------
@@ -65,6 +188,63 @@ public class ForestGameTest {
         assertEquals(1, player.getCol());
     }
 
+    @Test
+    public void testSetTileUpdatesWalkability() {
+
+        TileType[][] tiles = {
+                {TileType.GROUND, TileType.BUSH}
+        };
+
+        GameMap map = new GameMap(tiles, 0, 0);
+        assertFalse(map.isWalkableForPlayer(0, 1));
+
+        map.setTile(0, 1, TileType.CAMPFIRE);
+        assertEquals(TileType.CAMPFIRE, map.getTile(0, 1));
+        assertTrue(map.isWalkableForPlayer(0, 1));
+        assertFalse(map.isWalkableForWolf(0, 1));
+        assertFalse(map.isWalkableForWolf(0, 2));
+    }
+
+    @Test
+    public void testTileCountsFollowSetTile() {
+
+        TileType[][] tiles = {
+                {TileType.MUSHROOM, TileType.SPEED_POWERUP, TileType.MUSHROOM}
+        };
+
+        GameMap map = new GameMap(tiles, 0, 0);
+        assertEquals(2, map.getMushroomsRemaining());
+        assertEquals(1, map.getPowerUpsRemaining());
+
+        map.setTile(0, 0, TileType.GROUND);
+        map.setTile(0, 1, TileType.GROUND);
+        assertEquals(1, map.getMushroomsRemaining());
+        assertEquals(0, map.getPowerUpsRemaining());
+        assertTrue(map.hasAnyMushrooms());
+
+        map.setTile(0, 2, TileType.GROUND);
+        assertFalse(map.hasAnyMushrooms());
+        assertEquals(3, map.getTileCount(TileType.GROUND));
+    }
+
+    @Test
+    public void testWolfExitsFollowSetTile() {
+
+        TileType[][] tiles = {
+                {TileType.GROUND, TileType.GROUND},
+                {TileType.ROCK, TileType.GROUND}
+        };
+
+        GameMap map = new GameMap(tiles, 0, 0);
+        int right = 1 << Direction.RIGHT.ordinal();
+        int down = 1 << Direction.DOWN.ordinal();
+
+        assertEquals(right, map.getWolfExits(0, 0));
+
+        map.setTile(1, 0, TileType.GROUND);
+        assertEquals(right | down, map.getWolfExits(0, 0));
+    }
+
     // ---------------------------
     // 3. WOLF MOVEMENT TESTS
     // ---------------------------
@@ -101,8 +281,335 @@ public class ForestGameTest {
         assertEquals(1, wolf.getCol());
     }
 
+    @Test
+    public void testTerrainVersionIgnoresPickedUpItems() {
+
+        TileType[][] tiles = {
+                {TileType.GROUND, TileType.MUSHROOM, TileType.BUSH}
+        };
+
+        GameMap map = new GameMap(tiles, 0, 0);
+        int version = map.getTerrainVersion();
+
+        map.setTile(0, 1, TileType.GROUND);
+        assertEquals(version, map.getTerrainVersion());
+
+        // same walkability, different terrain
+        map.setTile(0, 2, TileType.TREE);
+        assertTrue(map.getTerrainVersion() != version);
+    }
+
+    @Test
+    public void testGameMapRejectsColumnOutsideRow() {
+
+        TileType[][] tiles = {
+                {TileType.GROUND, TileType.GROUND},
+                {TileType.GROUND, TileType.TREE}
+        };
+
+        GameMap map = new GameMap(tiles, 0, 0);
+
+        // (0, 3) would be (1, 1) in the flat array
+        try {
+            map.getTile(0, 3);
+            fail("Expected IndexOutOfBoundsException for column 3");
+        } catch (IndexOutOfBoundsException ex) {
+            assertEquals(TileType.TREE, map.getTile(1, 1));
+        }
+        try {
+            map.setTile(0, 2, TileType.ROCK);
+            fail("Expected IndexOutOfBoundsException for column 2");
+        } catch (IndexOutOfBoundsException ex) {
+            assertEquals(TileType.GROUND, map.getTile(1, 0));
+        }
+    }
+
+    @Test
+    public void testWolfGridFindsAdjacentWolves() {
+
+        WolfGrid grid = new WolfGrid(3, 3);
+        grid.add(0, 0);
+
+        assertTrue(grid.isWolfWithinOne(0, 1));
+        assertFalse(grid.isWolfWithinOne(1, 1));
+
+        grid.move(0, 0, 2, 1);
+        assertEquals(0, grid.countAt(0, 0));
+        assertTrue(grid.isWolfWithinOne(1, 1));
+        assertEquals(0, grid.countAt(-1, 5));
+    }
+
+    @Test
+    public void testWolfPackCopiesWolvesIntoReadOnlyViews() {
+
+        TileType[][] tiles = {
+                {TileType.GROUND, TileType.GROUND, TileType.GROUND}
+        };
+
+        GameMap map = new GameMap(tiles, 0, 0);
+        Wolf wolf = new Wolf(0, 0);
+        wolf.setDirection(Direction.RIGHT);
+
+        WolfPack pack = new WolfPack(List.of(wolf));
+        WolfGrid grid = new WolfGrid(1, 3);
+        grid.add(0, 0);
+
+        pack.update(map, new java.util.Random(0), grid);
+
+        Wolf view = pack.getWolves().get(0);
+        assertEquals(0, wolf.getCol());
+        assertEquals(1, view.getCol());
+        assertEquals(1, pack.getCol(0));
+        assertTrue(grid.isOccupied(0, 1));
+
+        try {
+            view.setCol(2);
+            fail("Expected UnsupportedOperationException: the grid would not follow");
+        } catch (UnsupportedOperationException ex) {
+            assertEquals(1, pack.getCol(0));
+        }
+    }
+
+    // ---------------------------
+    // 4. SIMULATION ENGINE TESTS
+    // ---------------------------
+    @Test
+    public void testEngineTickCatchesAdjacentPlayer() {
+
+        TileType[][] tiles = {
+                {TileType.CAMPFIRE, TileType.GROUND, TileType.GROUND, TileType.GROUND}
+        };
+
+        GameMap map = new GameMap(tiles, 0, 0);
+        Player player = new Player(0, 3);
+        Wolf wolf = new Wolf(0, 1);
+        wolf.setDirection(Direction.RIGHT);
+
+        GameState state = new GameState(new LoadedLevel(
+                map, player, new java.util.ArrayList<>(List.of(wolf)), "Test"));
+        SimulationEngine engine = new SimulationEngine(state, new java.util.Random(0));
+
+        assertEquals(StepResult.CAUGHT, engine.tick());
+        assertEquals(1, state.getElapsedSeconds());
+        assertEquals(2, player.getLives());
+        assertEquals(0, player.getCol());
+    }
+
+    @Test
+    public void testPursuingWolfWalksAroundObstacle() {
+
+        TileType[][] tiles = {
+                {TileType.GROUND, TileType.GROUND, TileType.GROUND, TileType.GROUND, TileType.GROUND},
+                {TileType.GROUND, TileType.TREE, TileType.TREE, TileType.TREE, TileType.GROUND},
+                {TileType.CAMPFIRE, TileType.GROUND, TileType.GROUND, TileType.GROUND, TileType.GROUND}
+        };
+
+        GameMap map = new GameMap(tiles, 2, 0);
+        Player player = new Player(2, 3);
+        Wolf wolf = new Wolf(0, 1);
+        wolf.setDirection(Direction.LEFT);
+
+        GameState state = new GameState(new LoadedLevel(
+                map, player, new java.util.ArrayList<>(List.of(wolf)), "Test"));
+        SimulationEngine engine = new SimulationEngine(state, new java.util.Random(0));
+        engine.setWolfBehavior(WolfBehavior.PURSUE);
+
+        engine.tick();
+        wolf = state.getWolves().get(0);
+
+        // going left dead-ends at the campfire, so the wolf turns around
+        assertEquals(0, wolf.getRow());
+        assertEquals(2, wolf.getCol());
+        assertEquals(Direction.RIGHT, wolf.getDirection());
+    }
+
+    @Test
+    public void testDistanceTableMatchesSearch() throws IOException {
+
+        LevelTemplate template = LevelCache.getTemplate("levels/level7.txt");
+        DistanceTable table = template.getDistanceTable();
+        assertTrue(table.isExact());
+
+        LoadedLevel level = template.newLevel();
+        GameMap map = level.getMap();
+        int pr = level.getPlayer().getRow();
+        int pc = level.getPlayer().getCol();
+
+        DistanceField field = new DistanceField(map);
+        field.update(pr, pc);
+
+        for (int r = 0; r < map.getRows(); r++) {
+            for (int c = 0; c < map.getCols(); c++) {
+                if (map.isWalkableForPlayer(r, c)) {
+                    assertEquals(field.distance(r, c), table.distance(r, c, pr, pc));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEngineLevelClearedOnLastMushroom() {
+
+        TileType[][] tiles = {
+                {TileType.CAMPFIRE, TileType.GROUND, TileType.MUSHROOM, TileType.TREE,
+                        TileType.GROUND, TileType.GROUND}
+        };
+
+        GameMap map = new GameMap(tiles, 0, 0);
+        Player player = new Player(0, 1);
+
+        GameState state = new GameState(new LoadedLevel(
+                map, player, new java.util.ArrayList<>(List.of(new Wolf(0, 5))), "Test"));
+        SimulationEngine engine = new SimulationEngine(state, new java.util.Random(0));
+
+        assertEquals(StepResult.LEVEL_CLEARED, engine.movePlayer(0, 1));
+        assertEquals(1, player.getMushroomsCollected());
+        assertTrue(state.isGameOver());
+    }
+
+    @Test
+    public void testSameSeedReproducesSession() {
+
+        String inputs = BatchRunner.randomInputs(7, 200);
+        SessionSpec spec = new SessionSpec("levels/level1.txt", 7, inputs, 200, WolfBehavior.WANDER);
+
+        SessionOutcome a = BatchRunner.runSession(spec);
+        SessionOutcome b = BatchRunner.runSession(spec);
+
+        assertEquals(a.getResult(), b.getResult());
+        assertEquals(a.getMushrooms(), b.getMushrooms());
+        assertEquals(a.getElapsedSeconds(), b.getElapsedSeconds());
+        assertEquals(a.getLivesLost(), b.getLivesLost());
+    }
+
+    @Test
+    public void testReplayReproducesRecordedSession() throws IOException {
+
+        GameState state = new GameState(LevelLoader.loadFromFile("levels/level1.txt"), 99);
+        SimulationEngine engine = new SimulationEngine(state);
+        engine.reset();
+        Replay replay = new Replay("levels/level1.txt", state.getLevelName(), 99, WolfBehavior.WANDER);
+
+        // several inputs per second, some seconds without any
+        String inputs = BatchRunner.randomInputs(99, 300);
+        StepResult last = StepResult.NONE;
+        for (int i = 0; i < inputs.length() && !last.isFinal(); i++) {
+            replay.record(state.getElapsedSeconds(), inputs.charAt(i));
+            last = engine.applyInput(inputs.charAt(i));
+            if (i % 3 == 2 && !last.isFinal())
+                last = engine.tick();
+        }
+        replay.finish(last.isFinal() ? last : StepResult.NONE,
+                state.getPlayer().getMushroomsCollected(), state.getElapsedSeconds());
+
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        replay.write(out);
+        Replay read = Replay.read(new java.io.ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(replay.getInputCount(), read.getInputCount());
+        assertTrue(ReplayRunner.matches(read, ReplayRunner.run(read)));
+    }
+
+    @Test
+    public void testCorruptReplayIsReportedAsIOException() throws IOException {
+
+        Replay replay = new Replay("levels/level1.txt", "Level 1", 7, WolfBehavior.WANDER);
+        replay.record(0, 'D');
+        replay.finish(StepResult.GAME_OVER, 0, 3);
+
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        replay.write(out);
+        byte[] data = out.toByteArray();
+        data[data.length - 9] = 0x7F;     // result ordinal, before mushrooms and time
+
+        try {
+            Replay.read(new java.io.ByteArrayInputStream(data));
+            fail("Expected IOException for an unknown result");
+        } catch (IOException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("result"));
+        }
+    }
+
+    @Test
+    public void testReplayWithUnboundedElapsedTimeIsRejected() throws IOException {
+
+        Replay replay = new Replay("levels/level1.txt", "Level 1", 7, WolfBehavior.WANDER);
+        replay.record(5, 'D');
+
+        for (int elapsed : new int[] { 4, -1, Integer.MAX_VALUE }) {
+            replay.finish(StepResult.NONE, 0, elapsed);
+            java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+            replay.write(out);
+
+            try {
+                Replay.read(new java.io.ByteArrayInputStream(out.toByteArray()));
+                fail("Expected IOException for elapsed seconds " + elapsed);
+            } catch (IOException ex) {
+                assertTrue(ex.getMessage(), ex.getMessage().contains("elapsed"));
+            }
+        }
+    }
+
+    @Test
+    public void testVisibilityFollowsPlayerAndRemembersExplored() {
+
+        TileType[][] tiles = new TileType[7][12];
+        for (TileType[] row : tiles)
+            java.util.Arrays.fill(row, TileType.GROUND);
+        tiles[3][5] = TileType.TREE;
+
+        GameMap map = new GameMap(tiles, 0, 0);
+        Visibility fog = new Visibility(map, 2, false);
+        fog.update(3, 1);
+
+        // step by step: the incrementally shifted square matches a fresh one
+        for (int col = 2; col <= 9; col++) {
+            fog.update(3, col);
+            Visibility fresh = new Visibility(map, 2, false);
+            fresh.update(3, col);
+            for (int r = 0; r < 7; r++)
+                for (int c = 0; c < 12; c++)
+                    assertEquals(fresh.isVisible(r, c), fog.isVisible(r, c));
+        }
+        assertFalse(fog.isVisible(3, 1));
+        assertTrue(fog.isExplored(3, 1));
+        assertFalse(fog.isExplored(0, 11));
+
+        Visibility sight = new Visibility(map, 3, true);
+        sight.update(3, 3);
+        assertTrue(sight.isVisible(3, 5));     // the tree itself
+        assertFalse(sight.isVisible(3, 6));    // hidden behind it
+        assertTrue(sight.isVisible(1, 6));
+    }
+
+    @Test
+    public void testFieldOfViewShadowsAndMemoizes() {
+
+        TileType[][] tiles = new TileType[9][9];
+        for (TileType[] row : tiles)
+            java.util.Arrays.fill(row, TileType.GROUND);
+        tiles[4][5] = TileType.ROCK;
+        tiles[2][4] = TileType.BUSH;
+
+        GameMap map = new GameMap(tiles, 0, 0);
+        FieldOfView fov = new FieldOfView(map);
+        long[] mask = fov.compute(4, 4, 4);
+
+        assertTrue(FieldOfView.isSet(mask, 4, 0, 1));      // the rock
+        assertFalse(FieldOfView.isSet(mask, 4, 0, 3));     // behind the rock
+        assertTrue(FieldOfView.isSet(mask, 4, -4, 0));     // over the bush
+        assertTrue(FieldOfView.isSet(mask, 4, 4, 4));
+        assertSame(mask, fov.compute(4, 4, 4));
+
+        // a bush growing into a tree keeps walkability but blocks the view
+        int walkability = map.getWalkabilityVersion();
+        map.setTile(2, 4, TileType.TREE);
+        assertEquals(walkability, map.getWalkabilityVersion());
+        assertFalse(fov.isValidFor(map));
+    }
+
     // ---------------------------
-    // 4. DATABASE TEST
+    // 5. DATABASE TEST
     // ---------------------------
     @Test
     public void testHighscoreDatabaseInsertAndRetrieve() {
@@ -120,4 +627,121 @@ public class ForestGameTest {
         assertTrue(first.getMushrooms() >= 0);
         assertTrue(first.getTimeSeconds() >= 0);
     }
+
+    @Test
+    public void testSavedScoreIsOnTheLeaderboardRightAway() {
+
+        String level = "Leaderboard Test " + System.nanoTime();
+        HighscoreDatabase.saveScore("Now", level, 3, 10);
+
+        // read without waiting for the writer or the DB
+        List<HighscoreEntry> top = HighscoreDatabase.getTopScores(level, 10);
+        assertEquals(1, top.size());
+        assertEquals("Now", top.get(0).getPlayerName());
+    }
+
+    @Test
+    public void testHighscoreWriterBatchesAndFlushes() {
+
+        List<Integer> batchSizes = java.util.Collections.synchronizedList(new java.util.ArrayList<>());
+        HighscoreWriter writer = new HighscoreWriter(64, batch -> batchSizes.add(batch.size()));
+
+        int accepted = 0;
+        for (int i = 0; i < 500; i++) {
+            if (writer.submit(new HighscoreEntry("P" + i, "Level 1", i, i, null)))
+                accepted++;
+        }
+        assertTrue(writer.flush(5000));
+
+        // submit does not wait, so a full queue drops scores instead
+        assertEquals(500, accepted + writer.getRejectedCount());
+        assertEquals(accepted, writer.getWrittenCount());
+        assertEquals(accepted, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(n -> n <= HighscoreWriter.MAX_BATCH));
+        assertTrue(writer.getMaxQueueDepth() <= 64);
+
+        assertTrue(writer.shutdown(1000));
+        assertFalse(writer.submit(new HighscoreEntry("Late", "Level 1", 0, 0, null)));
+    }
+
+    @Test
+    public void testHighscoreWriterWritesEveryScoreAcceptedDuringShutdown() throws InterruptedException {
+
+        for (int round = 0; round < 20; round++) {
+            HighscoreWriter writer = new HighscoreWriter(1024, batch -> { });
+            java.util.concurrent.atomic.AtomicInteger accepted = new java.util.concurrent.atomic.AtomicInteger();
+
+            Thread submitter = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if (writer.submit(new HighscoreEntry("P", "Level 1", i, i, null)))
+                        accepted.incrementAndGet();
+                }
+            });
+            submitter.start();
+            Thread.sleep(1);
+            assertTrue(writer.shutdown(5000));
+            submitter.join();
+
+            // nothing accepted after the writer thread exited
+            assertEquals(accepted.get(), writer.getWrittenCount());
+            assertTrue(writer.flush(100));
+        }
+    }
+
+    @Test
+    public void testHighscoreWriterRejectsWithoutWaitingWhenFull() throws InterruptedException {
+
+        java.util.concurrent.CountDownLatch writing = new java.util.concurrent.CountDownLatch(1);
+        java.util.concurrent.CountDownLatch release = new java.util.concurrent.CountDownLatch(1);
+        HighscoreWriter writer = new HighscoreWriter(1, batch -> {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // the first score blocks the writer thread, the second fills the queue
+        assertTrue(writer.submit(new HighscoreEntry("A", "Level 1", 1, 1, null)));
+        assertTrue(writing.await(5, java.util.concurrent.TimeUnit.SECONDS));
+        assertTrue(writer.submit(new HighscoreEntry("B", "Level 1", 2, 2, null)));
+
+        long start = System.nanoTime();
+        assertFalse(writer.submit(new HighscoreEntry("C", "Level 1", 3, 3, null)));
+        assertTrue(System.nanoTime() - start < 500_000_000L);
+        assertEquals(1, writer.getRejectedCount());
+
+        release.countDown();
+        assertTrue(writer.shutdown(5000));
+        assertEquals(2, writer.getWrittenCount());
+    }
+
+    @Test
+    public void testLeaderboardKeepsTopScoresInQueryOrder() {
+
+        Leaderboard board = new Leaderboard(3);
+
+        board.add(new HighscoreEntry("A", "Level 1", 5, 40, null));
+        board.add(new HighscoreEntry("B", "Level 1", 7, 90, null));
+        board.add(new HighscoreEntry("C", "Level 1", 5, 30, null));
+        board.add(new HighscoreEntry("D", "Level 2", 9, 10, null));
+        assertFalse(board.add(new HighscoreEntry("E", "Level 1", 1, 5, null)));
+        assertTrue(board.add(new HighscoreEntry("F", "Level 1", 5, 30, null)));    // tie goes after C
+
+        List<HighscoreEntry> top = board.getTopScores("Level 1", 10);
+        assertEquals(3, top.size());
+        assertEquals("B", top.get(0).getPlayerName());
+        assertEquals("C", top.get(1).getPlayerName());
+        assertEquals("F", top.get(2).getPlayerName());
+
+        assertEquals(1, board.getTopScores("Level 1", 1).size());
+        assertEquals("D", board.getTopScores("Level 2", 10).get(0).getPlayerName());
+        assertTrue(board.getTopScores("Level 3", 10).isEmpty());
+
+        // scores loaded from the DB rank before equal scores of this run
+        board.addOlder(List.of(new HighscoreEntry("G", "Level 2", 9, 10, null)));
+        assertEquals("G", board.getTopScores("Level 2", 10).get(0).getPlayerName());
+        assertEquals("D", board.getTopScores("Level 2", 10).get(1).getPlayerName());
+    }
 }